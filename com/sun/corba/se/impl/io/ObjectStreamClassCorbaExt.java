@@ -62,6 +62,19 @@ class ObjectStreamClassCorbaExt {
      *    java.rmi.RemoteException's super classes.
      */
     static final boolean isAbstractInterface(Class cl) {
+        // Field values are marshalled by consulting this for their
+        // declared type, so the result is computed once per class
+        return abstractInterfaceValue.get(cl);
+    }
+
+    private static final ClassValue<Boolean> abstractInterfaceValue =
+        new ClassValue<Boolean>() {
+            protected Boolean computeValue(Class<?> type) {
+                return computeAbstractInterface(type);
+            }
+        };
+
+    private static boolean computeAbstractInterface(Class cl) {
         if (!cl.isInterface() || // #1
                 java.rmi.Remote.class.isAssignableFrom(cl)) { // #2
             return false;
@@ -264,15 +264,18 @@ public class ThreadPoolImpl implements ThreadPool
 
     /**
      * To be called from the workqueue when work is added to the
-     * workQueue. This method would create new threads if required
-     * or notify waiting threads on the queue for available work
+     * workQueue. This method would notify waiting threads on the queue
+     * for available work, or return true if a new thread is required.
+     * The caller then creates it with createWorkerThread() once it no
+     * longer holds the lock of the workQueue.
      */
-    void notifyForAvailableWork(WorkQueue aWorkQueue) {
+    boolean notifyForAvailableWork(WorkQueue aWorkQueue) {
         synchronized (aWorkQueue) {
             if (availableWorkerThreads < aWorkQueue.workItemsInQueue()) {
-                createWorkerThread();
+                return true;
             } else {
                 aWorkQueue.notify();
+                return false;
             }
         }
     }
@@ -341,28 +344,27 @@ public class ThreadPoolImpl implements ThreadPool
      */
     void createWorkerThread() {
         final String name = getName();
-        synchronized (workQueue) {
-            try {
-                if (System.getSecurityManager() == null) {
-                    createWorkerThreadHelper(name);
-                } else {
-                    // If we get here, we need to create a thread.
-                    AccessController.doPrivileged(
-                            new PrivilegedAction() {
-                        public Object run() {
-                            return createWorkerThreadHelper(name);
-                        }
+        // The thread is counted before it is created. Creating and
+        // starting it is slow, and is done without holding the lock
+        // of the workQueue, which every addWork and requestWork needs.
+        incrementCurrentNumberOfThreads();
+        try {
+            if (System.getSecurityManager() == null) {
+                createWorkerThreadHelper(name);
+            } else {
+                // If we get here, we need to create a thread.
+                AccessController.doPrivileged(
+                        new PrivilegedAction() {
+                    public Object run() {
+                        return createWorkerThreadHelper(name);
                     }
-                    );
                 }
-            } catch (Throwable t) {
-                // Decrementing the count of current worker threads.
-                // But, it will be increased in the finally block.
-                decrementCurrentNumberOfThreads();
-                wrapper.workerThreadCreationFailure(t);
-            } finally {
-                incrementCurrentNumberOfThreads();
+                );
             }
+        } catch (Throwable t) {
+            // The thread was not created after all.
+            decrementCurrentNumberOfThreads();
+            wrapper.workerThreadCreationFailure(t);
         }
     }
 
@@ -111,11 +111,19 @@ public class WorkQueueImpl implements WorkQueue
         return workqueueMonitoredObject;
     }
 
-    public synchronized void addWork(Work work) {
+    public void addWork(Work work) {
+        boolean createThread;
+        synchronized (this) {
             workItemsAdded++;
             work.setEnqueueTime(System.currentTimeMillis());
             theWorkQueue.addLast(work);
-            ((ThreadPoolImpl)workerThreadPool).notifyForAvailableWork(this);
+            createThread = ((ThreadPoolImpl)workerThreadPool).notifyForAvailableWork(this);
+        }
+        // Starting a thread is slow; don't hold up other threads
+        // adding or requesting work meanwhile.
+        if (createThread) {
+            ((ThreadPoolImpl)workerThreadPool).createWorkerThread();
+        }
     }
 
     synchronized Work requestWork(long waitTime) throws TimeoutException, InterruptedException
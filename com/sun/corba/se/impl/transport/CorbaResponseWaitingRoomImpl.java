@@ -25,10 +25,9 @@
 
 package com.sun.corba.se.impl.transport;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.omg.CORBA.CompletionStatus;
 import org.omg.CORBA.SystemException;
@@ -70,7 +69,9 @@ public class CorbaResponseWaitingRoomImpl
     private ORBUtilSystemException wrapper ;
 
     private CorbaConnection connection;
-    // Maps requestId to an OutCallDesc.
+    // Maps requestId to an OutCallDesc.  Every call multiplexed over
+    // the connection registers, looks up and removes its entry here, so
+    // the map must not serialize those threads on a single lock.
     final private Map<Integer, OutCallDesc> out_calls;
 
     public CorbaResponseWaitingRoomImpl(ORB orb, CorbaConnection connection)
@@ -79,8 +80,7 @@ public class CorbaResponseWaitingRoomImpl
         wrapper = ORBUtilSystemException.get( orb,
             CORBALogDomains.RPC_TRANSPORT ) ;
         this.connection = connection;
-        out_calls =
-            Collections.synchronizedMap(new HashMap<Integer, OutCallDesc>());
+        out_calls = new ConcurrentHashMap<Integer, OutCallDesc>();
     }
 
     ////////////////////////////////////////////////////
@@ -200,7 +200,7 @@ public class CorbaResponseWaitingRoomImpl
         CDRInputObject inputObject = (CDRInputObject) is;
         LocateReplyOrReplyMessage header = (LocateReplyOrReplyMessage)
             inputObject.getMessageHeader();
-        Integer requestId = new Integer(header.getRequestId());
+        Integer requestId = Integer.valueOf(header.getRequestId());
         OutCallDesc call = out_calls.get(requestId);
 
         if (orb.transportDebugFlag) {
@@ -267,40 +267,41 @@ public class CorbaResponseWaitingRoomImpl
             dprint(".signalExceptionToAllWaiters: " + systemException);
         }
 
-        synchronized (out_calls) {
+        // Calls registered concurrently with this loop may or may not be
+        // signaled; that was already the case with a lock held, since such
+        // a call could equally have registered just after it.
+        if (orb.transportDebugFlag) {
+            dprint(".signalExceptionToAllWaiters: out_calls size :" +
+                   out_calls.size());
+        }
+
+        for (OutCallDesc call : out_calls.values()) {
             if (orb.transportDebugFlag) {
-                dprint(".signalExceptionToAllWaiters: out_calls size :" +
-                       out_calls.size());
+                dprint(".signalExceptionToAllWaiters: signaling " +
+                        call);
             }
-
-            for (OutCallDesc call : out_calls.values()) {
-                if (orb.transportDebugFlag) {
-                    dprint(".signalExceptionToAllWaiters: signaling " +
-                            call);
-                }
-                synchronized(call.done) {
-                    try {
-                        // anything waiting for BufferManagerRead's fragment queue
-                        // needs to be cancelled
-                        CorbaMessageMediator corbaMsgMediator =
-                                     (CorbaMessageMediator)call.messageMediator;
-                        CDRInputObject inputObject =
-                                   (CDRInputObject)corbaMsgMediator.getInputObject();
-                        // IMPORTANT: If inputObject is null, then no need to tell
-                        //            BufferManagerRead to cancel request processing.
-                        if (inputObject != null) {
-                            BufferManagerReadStream bufferManager =
-                                (BufferManagerReadStream)inputObject.getBufferManager();
-                            int requestId = corbaMsgMediator.getRequestId();
-                            bufferManager.cancelProcessing(requestId);
-                        }
-                    } catch (Exception e) {
-                    } finally {
-                        // attempt to wake up waiting threads in all cases
-                        call.inputObject = null;
-                        call.exception = systemException;
-                        call.done.notifyAll();
+            synchronized(call.done) {
+                try {
+                    // anything waiting for BufferManagerRead's fragment queue
+                    // needs to be cancelled
+                    CorbaMessageMediator corbaMsgMediator =
+                                 (CorbaMessageMediator)call.messageMediator;
+                    CDRInputObject inputObject =
+                               (CDRInputObject)corbaMsgMediator.getInputObject();
+                    // IMPORTANT: If inputObject is null, then no need to tell
+                    //            BufferManagerRead to cancel request processing.
+                    if (inputObject != null) {
+                        BufferManagerReadStream bufferManager =
+                            (BufferManagerReadStream)inputObject.getBufferManager();
+                        int requestId = corbaMsgMediator.getRequestId();
+                        bufferManager.cancelProcessing(requestId);
                     }
+                } catch (Exception e) {
+                } finally {
+                    // attempt to wake up waiting threads in all cases
+                    call.inputObject = null;
+                    call.exception = systemException;
+                    call.done.notifyAll();
                 }
             }
         }
@@ -308,7 +309,7 @@ public class CorbaResponseWaitingRoomImpl
 
     public MessageMediator getMessageMediator(int requestId)
     {
-        Integer id = new Integer(requestId);
+        Integer id = Integer.valueOf(requestId);
         OutCallDesc call = out_calls.get(id);
         if (call == null) {
             // This can happen when getting early reply fragments for a
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.jmx.mbeanserver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+import javax.management.AttributeList;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistration;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import static com.sun.jmx.defaults.JmxProperties.MBEANSERVER_LOGGER;
+
+/**
+ * An MBean that reads the same attributes from all the MBeans matching
+ * a name pattern in one operation.
+ * <p>
+ * A remote client reading many MBeans otherwise makes one
+ * {@code getAttributes} request, with its own round trip and access
+ * checks, per MBean. Invoking {@link #getAttributes getAttributes} on
+ * this MBean makes a single request; the attributes are then read
+ * within the MBean server, through the same {@code getAttributes} path,
+ * so the attribute values are converted as for a direct request. This
+ * includes the cached open type mappings of MXBeans.
+ * <p>
+ * The MBean is not registered by default. An application registers it
+ * in the MBean server whose MBeans are to be read. The query and the
+ * reads go through the MBean server given to the constructor. When a
+ * connector server has an {@link javax.management.remote.MBeanServerForwarder
+ * MBeanServerForwarder}, such as the access controller installed for the
+ * {@code jmx.remote.x.access.file} property, that server should be the
+ * one returned by {@link javax.management.remote.JMXConnectorServer#getMBeanServer
+ * JMXConnectorServer.getMBeanServer}. The forwarder then checks every
+ * query and read as it would a direct request:
+ * <pre>
+ * MBeanServer outer = connectorServer.getMBeanServer();
+ * outer.registerMBean(new BulkAttributeReader(outer),
+ *     new ObjectName("com.sun.jmx:type=BulkAttributeReader"));
+ * </pre>
+ * The no-argument constructor reads through the MBean server the MBean
+ * is registered in, which bypasses any forwarder in front of it.
+ * <p>
+ * Access control applies as follows:
+ * <ul>
+ * <li>Clients call the reader with {@code invoke}, not with
+ * {@code getAttributes}, so an access controller must let them invoke
+ * operations on it. With {@code jmx.remote.x.access.file} that takes the
+ * {@code readwrite} access level; {@code readonly} clients have to read
+ * each MBean with {@code getAttributes}.</li>
+ * <li>The query and the reads run in the thread and security context of
+ * the operation, so they are checked against the same caller as direct
+ * requests. A {@code SecurityException} from a query or read
+ * fails the operation rather than leaving the MBean out.</li>
+ * <li>When a security manager is installed, registering the MBean
+ * requires {@code RuntimePermission("accessClassInPackage.com.sun.jmx.mbeanserver")},
+ * since this package is restricted. Callers of the operation need the
+ * {@code MBeanPermission}s for {@code invoke} on the reader, and for
+ * {@code queryNames} and {@code getAttribute} on the MBeans read.</li>
+ * </ul>
+ */
+public class BulkAttributeReader
+    implements BulkAttributeReaderMBean, MBeanRegistration {
+
+    private final MBeanServer outer;
+    private volatile MBeanServer server;
+
+    /**
+     * Creates a reader that reads through the MBean server it is
+     * registered in.
+     */
+    public BulkAttributeReader() {
+        this.outer = null;
+    }
+
+    /**
+     * Creates a reader that reads through the given MBean server.
+     *
+     * @param server the MBean server to query and read through,
+     * typically the outermost {@code MBeanServerForwarder} of a
+     * connector server.
+     *
+     * @throws IllegalArgumentException if {@code server} is null.
+     */
+    public BulkAttributeReader(MBeanServer server) {
+        if (server == null) {
+            throw new IllegalArgumentException("MBean server cannot be null");
+        }
+        this.outer = server;
+    }
+
+    public Map<ObjectName, AttributeList> getAttributes(ObjectName pattern,
+                                                        String[] attributes) {
+        final MBeanServer mbs = server;
+        if (mbs == null) {
+            throw new IllegalStateException("Not registered");
+        }
+        if (attributes == null) {
+            throw new IllegalArgumentException("Attribute names cannot be null");
+        }
+        final Map<ObjectName, AttributeList> result = new LinkedHashMap<>();
+        for (ObjectName name : mbs.queryNames(pattern, null)) {
+            try {
+                result.put(name, mbs.getAttributes(name, attributes));
+            } catch (InstanceNotFoundException e) {
+                // unregistered since the query; leave it out
+            } catch (ReflectionException e) {
+                // the MBean could not be read; leave it out as
+                // getAttributes leaves out attributes it cannot read
+                if (MBEANSERVER_LOGGER.isLoggable(Level.FINEST)) {
+                    MBEANSERVER_LOGGER.logp(Level.FINEST,
+                            BulkAttributeReader.class.getName(),
+                            "getAttributes", "Cannot read " + name, e);
+                }
+            }
+        }
+        return result;
+    }
+
+    public ObjectName preRegister(MBeanServer server, ObjectName name) {
+        this.server = (outer != null) ? outer : server;
+        return name;
+    }
+
+    public void postRegister(Boolean registrationDone) {
+        if (!registrationDone) {
+            server = null;
+        }
+    }
+
+    public void preDeregister() {
+    }
+
+    public void postDeregister() {
+        server = null;
+    }
+}
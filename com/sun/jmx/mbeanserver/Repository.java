@@ -83,6 +83,12 @@ public class Repository {
      */
     private final Map<String,Map<String,NamedObject>> domainTb;
 
+    /**
+     * For each domain in domainTb, an index of the named objects of
+     * the domain by key property.
+     */
+    private final Map<String,KeyPropertyIndex> indexTb;
+
     /**
      * Number of elements contained in the Repository
      */
@@ -217,6 +223,71 @@ public class Repository {
         }
     }
 
+    /* This class indexes the named objects of a domain by key property.
+       Name patterns usually fix the value of some key, as in
+       "domain:type=Foo,*"; only the named objects that have such a
+       key property need then be matched against the pattern. */
+    private final static class KeyPropertyIndex {
+        /* key -> value -> named objects having key=value */
+        private final Map<String,Map<String,Set<NamedObject>>> keys =
+            new HashMap<String,Map<String,Set<NamedObject>>>();
+
+        void add(NamedObject no) {
+            for (Map.Entry<String,String> entry :
+                     no.getName().getKeyPropertyList().entrySet()) {
+                Map<String,Set<NamedObject>> values = keys.get(entry.getKey());
+                if (values == null) {
+                    values = new HashMap<String,Set<NamedObject>>();
+                    keys.put(entry.getKey(), values);
+                }
+                Set<NamedObject> objects = values.get(entry.getValue());
+                if (objects == null) {
+                    objects = new HashSet<NamedObject>();
+                    values.put(entry.getValue(), objects);
+                }
+                objects.add(no);
+            }
+        }
+
+        void remove(NamedObject no) {
+            for (Map.Entry<String,String> entry :
+                     no.getName().getKeyPropertyList().entrySet()) {
+                Map<String,Set<NamedObject>> values = keys.get(entry.getKey());
+                if (values == null) continue;
+                Set<NamedObject> objects = values.get(entry.getValue());
+                if (objects == null) continue;
+                objects.remove(no);
+                if (objects.isEmpty()) {
+                    values.remove(entry.getValue());
+                    if (values.isEmpty()) keys.remove(entry.getKey());
+                }
+            }
+        }
+
+        /**
+         * Returns the smallest set of named objects that contains every
+         * object matching the given pattern, as found by looking up the
+         * key properties whose value is not a pattern, or null if the
+         * pattern has no such key property.
+         **/
+        Set<NamedObject> candidates(ObjectNamePattern pattern) {
+            Set<NamedObject> smallest = null;
+            for (int i = 0; i < pattern.keys.length; i++) {
+                if (pattern.isPropertyValuePattern &&
+                    pattern.pattern.isPropertyValuePattern(pattern.keys[i]))
+                    continue;
+                final Map<String,Set<NamedObject>> values =
+                    keys.get(pattern.keys[i]);
+                final Set<NamedObject> objects =
+                    (values == null) ? null : values.get(pattern.values[i]);
+                if (objects == null) return Collections.emptySet();
+                if (smallest == null || objects.size() < smallest.size())
+                    smallest = objects;
+            }
+            return smallest;
+        }
+    }
+
     /**
      * Add all the matching objects from the given hashtable in the
      * result set for the given ObjectNamePattern
@@ -224,10 +295,15 @@ public class Repository {
      * key property lists - see <i>matchKeys()</i>)
      **/
     private void addAllMatching(final Map<String,NamedObject> moiTb,
+                                final KeyPropertyIndex index,
                                 final Set<NamedObject> result,
                                 final ObjectNamePattern pattern) {
+        // Only match the named objects that have the key properties
+        // required by the pattern, when it requires any
+        final Set<NamedObject> candidates = index.candidates(pattern);
         synchronized (moiTb) {
-            for (NamedObject no : moiTb.values()) {
+            for (NamedObject no :
+                     (candidates != null) ? candidates : moiTb.values()) {
                 final ObjectName on = no.getName();
                 // if all couples (property, value) are contained
                 if (pattern.matchKeys(on)) result.add(no);
@@ -241,9 +317,11 @@ public class Repository {
                               final RegistrationContext context) {
         final Map<String,NamedObject> moiTb =
             new HashMap<String,NamedObject>();
+        final KeyPropertyIndex index = new KeyPropertyIndex();
         final String key = name.getCanonicalKeyPropertyListString();
-        addMoiToTb(object,name,key,moiTb,context);
+        addMoiToTb(object,name,key,moiTb,index,context);
         domainTb.put(dom, moiTb);
+        indexTb.put(dom, index);
         nbElements++;
     }
 
@@ -274,9 +352,12 @@ public class Repository {
             final ObjectName name,
             final String key,
             final Map<String,NamedObject> moiTb,
+            final KeyPropertyIndex index,
             final RegistrationContext context) {
         registering(context);
-        moiTb.put(key,new NamedObject(name, object));
+        final NamedObject no = new NamedObject(name, object);
+        moiTb.put(key,no);
+        index.add(no);
     }
 
     /**
@@ -326,6 +407,7 @@ public class Repository {
         lock = new ReentrantReadWriteLock(fairLock);
 
         domainTb = new HashMap<String,Map<String,NamedObject>>(5);
+        indexTb = new HashMap<String,KeyPropertyIndex>(5);
 
         if (domain != null && domain.length() != 0)
             this.domain = domain.intern(); // we use == domain later on...
@@ -334,6 +416,7 @@ public class Repository {
 
         // Creates a new hashtable for the default domain
         domainTb.put(this.domain, new HashMap<String,NamedObject>());
+        indexTb.put(this.domain, new KeyPropertyIndex());
     }
 
     /**
@@ -437,7 +520,7 @@ public class Repository {
                     throw new InstanceAlreadyExistsException(name.toString());
                 } else {
                     nbElements++;
-                    addMoiToTb(object,name,cstr,moiTb,context);
+                    addMoiToTb(object,name,cstr,moiTb,indexTb.get(dom),context);
                 }
             }
 
@@ -556,7 +639,8 @@ public class Repository {
                 if (allNames)
                     result.addAll(moiTb.values());
                 else
-                    addAllMatching(moiTb, result, namePattern);
+                    addAllMatching(moiTb, indexTb.get(domain), result,
+                                   namePattern);
                 return result;
             }
 
@@ -566,7 +650,8 @@ public class Repository {
                 if (allNames)
                     result.addAll(moiTb.values());
                 else
-                    addAllMatching(moiTb, result, namePattern);
+                    addAllMatching(moiTb, indexTb.get(name.getDomain()),
+                                   result, namePattern);
                 return result;
             }
 
@@ -578,7 +663,8 @@ public class Repository {
                     if (allNames)
                         result.addAll(moiTb.values());
                     else
-                        addAllMatching(moiTb, result, namePattern);
+                        addAllMatching(moiTb, indexTb.get(dom), result,
+                                       namePattern);
                 }
             }
             return result;
@@ -629,9 +715,12 @@ public class Repository {
             }
 
             // Remove the corresponding element
-            if (moiTb.remove(name.getCanonicalKeyPropertyListString())==null) {
+            final NamedObject no =
+                moiTb.remove(name.getCanonicalKeyPropertyListString());
+            if (no == null) {
                 throw new InstanceNotFoundException(name.toString());
             }
+            indexTb.get(dom).remove(no);
 
             // We removed it !
             nbElements--;
@@ -639,13 +728,16 @@ public class Repository {
             // No more object for this domain, we remove this domain hashtable
             if (moiTb.isEmpty()) {
                 domainTb.remove(dom);
+                indexTb.remove(dom);
 
                 // set a new default domain table (always present)
                 // need to reinstantiate a hashtable because of possible
                 // big buckets array size inside table, never cleared,
                 // thus the new !
-                if (dom == domain) // ES: OK dom and domain are interned.
+                if (dom == domain) { // ES: OK dom and domain are interned.
                     domainTb.put(domain, new HashMap<String,NamedObject>());
+                    indexTb.put(domain, new KeyPropertyIndex());
+                }
             }
 
             unregistering(context,name);
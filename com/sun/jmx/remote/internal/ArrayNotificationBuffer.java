@@ -358,13 +358,17 @@ public class ArrayNotificationBuffer implements NotificationBuffer {
 
         /* On exit from this loop, notifs, earliestSeq, and nextSeq must
            all be correct values for the returned NotificationResult.  */
+        List<NamedNotification> candidates =
+            new ArrayList<NamedNotification>();
+        fetch:
         while (true) {
             logger.debug("fetchNotifications", "main loop starts");
 
-            NamedNotification candidate;
-
-            /* Get the next available notification regardless of filters,
-               or wait for one to arrive if there is none.  */
+            /* Get the next available notifications regardless of filters,
+               or wait for one to arrive if there is none.  All the
+               notifications available are taken at once, so that busy
+               buffers are locked once per batch by each client rather
+               than once per notification.  */
             synchronized (this) {
 
                 /* First time through.  The current earliestSequenceNumber
@@ -396,24 +400,12 @@ public class ArrayNotificationBuffer implements NotificationBuffer {
                 }
 
                 if (nextSeq < nextSequenceNumber()) {
-                    candidate = notificationAt(nextSeq);
-                    // Skip security check if NotificationBufferFilter is not overloaded
-                    if (!(filter instanceof ServerNotifForwarder.NotifForwarderBufferFilter)) {
-                        try {
-                            ServerNotifForwarder.checkMBeanPermission(this.mBeanServer,
-                                                      candidate.getObjectName(),"addNotificationListener");
-                        } catch (InstanceNotFoundException | SecurityException e) {
-                            if (logger.debugOn()) {
-                                logger.debug("fetchNotifications", "candidate: " + candidate + " skipped. exception " + e);
-                            }
-                            ++nextSeq;
-                            continue;
-                        }
-                    }
+                    for (long seq = nextSeq; seq < nextSequenceNumber(); seq++)
+                        candidates.add(notificationAt(seq));
 
                     if (logger.debugOn()) {
-                        logger.debug("fetchNotifications", "candidate: " +
-                                     candidate);
+                        logger.debug("fetchNotifications", "candidates: " +
+                                     candidates.size());
                         logger.debug("fetchNotifications", "nextSeq now " +
                                      nextSeq);
                     }
@@ -452,38 +444,56 @@ public class ArrayNotificationBuffer implements NotificationBuffer {
                 }
             }
 
-            /* We have a candidate notification.  See if it matches
+            /* We have candidate notifications.  See if they match
                our filters.  We do this outside the synchronized block
                so we don't hold up everyone accessing the buffer
                (including notification senders) while we evaluate
                potentially slow filters.  */
-            ObjectName name = candidate.getObjectName();
-            Notification notif = candidate.getNotification();
-            List<TargetedNotification> matchedNotifs =
-                new ArrayList<TargetedNotification>();
-            logger.debug("fetchNotifications",
-                         "applying filter to candidate");
-            filter.apply(matchedNotifs, name, notif);
-
-            if (matchedNotifs.size() > 0) {
-                /* We only check the max size now, so that our
-                   returned nextSeq is as large as possible.  This
-                   prevents the caller from thinking it missed
-                   interesting notifications when in fact we knew they
-                   weren't.  */
-                if (maxNotifications <= 0) {
-                    logger.debug("fetchNotifications",
-                                 "reached maxNotifications");
-                    break;
+            for (NamedNotification candidate : candidates) {
+                ObjectName name = candidate.getObjectName();
+
+                // Skip security check if NotificationBufferFilter is not overloaded
+                if (!(filter instanceof ServerNotifForwarder.NotifForwarderBufferFilter)) {
+                    try {
+                        ServerNotifForwarder.checkMBeanPermission(this.mBeanServer,
+                                                  name,"addNotificationListener");
+                    } catch (InstanceNotFoundException | SecurityException e) {
+                        if (logger.debugOn()) {
+                            logger.debug("fetchNotifications", "candidate: " + candidate + " skipped. exception " + e);
+                        }
+                        ++nextSeq;
+                        continue;
+                    }
                 }
-                --maxNotifications;
-                if (logger.debugOn())
-                    logger.debug("fetchNotifications", "add: " +
-                                 matchedNotifs);
-                notifs.addAll(matchedNotifs);
-            }
 
-            ++nextSeq;
+                Notification notif = candidate.getNotification();
+                List<TargetedNotification> matchedNotifs =
+                    new ArrayList<TargetedNotification>();
+                logger.debug("fetchNotifications",
+                             "applying filter to candidate");
+                filter.apply(matchedNotifs, name, notif);
+
+                if (matchedNotifs.size() > 0) {
+                    /* We only check the max size now, so that our
+                       returned nextSeq is as large as possible.  This
+                       prevents the caller from thinking it missed
+                       interesting notifications when in fact we knew they
+                       weren't.  */
+                    if (maxNotifications <= 0) {
+                        logger.debug("fetchNotifications",
+                                     "reached maxNotifications");
+                        break fetch;
+                    }
+                    --maxNotifications;
+                    if (logger.debugOn())
+                        logger.debug("fetchNotifications", "add: " +
+                                     matchedNotifs);
+                    notifs.addAll(matchedNotifs);
+                }
+
+                ++nextSeq;
+            }
+            candidates.clear();
         } // end while
 
         /* Construct and return the result.  */
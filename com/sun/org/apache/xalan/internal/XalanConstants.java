@@ -231,6 +231,16 @@ public final class XalanConstants {
             ORACLE_JAXP_PROPERTY_PREFIX + "enableExtensionFunctions";
     public static final String SP_ORACLE_ENABLE_EXTENSION_FUNCTION = "javax.xml.enableExtensionFunctions";
 
+    /**
+     * Feature xpathContextCache: when enabled, javax.xml.xpath evaluations
+     * on a thread reuse the XPath context, and with it the DTM built over
+     * the DOM document, as long as they target the same document.
+     * The document must not be modified while the feature is in use.
+     */
+    public static final String ORACLE_XPATH_CONTEXT_CACHE =
+            ORACLE_JAXP_PROPERTY_PREFIX + "xpathContextCache";
+    public static final String SP_ORACLE_XPATH_CONTEXT_CACHE = "jdk.xml.xpathContextCache";
+
     /**
      * Values for a feature
      */
@@ -49,7 +49,9 @@ public final class FeatureManager extends FeaturePropertyBase {
      */
     public static enum Feature {
         ORACLE_ENABLE_EXTENSION_FUNCTION(XalanConstants.ORACLE_ENABLE_EXTENSION_FUNCTION,
-                "true");
+                "true"),
+        ORACLE_XPATH_CONTEXT_CACHE(XalanConstants.ORACLE_XPATH_CONTEXT_CACHE,
+                "false");
 
         final String name;
         final String defaultValue;
@@ -119,6 +121,8 @@ public final class FeatureManager extends FeaturePropertyBase {
     private void readSystemProperties() {
         getSystemProperty(Feature.ORACLE_ENABLE_EXTENSION_FUNCTION,
                 XalanConstants.SP_ORACLE_ENABLE_EXTENSION_FUNCTION);
+        getSystemProperty(Feature.ORACLE_XPATH_CONTEXT_CACHE,
+                XalanConstants.SP_ORACLE_XPATH_CONTEXT_CACHE);
     }
 
 }
@@ -48,6 +48,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.Properties;
@@ -101,6 +102,7 @@ public class TransformerFactoryImpl
     public final static String DEBUG = "debug";
     public final static String ENABLE_INLINING = "enable-inlining";
     public final static String INDENT_NUMBER = "indent-number";
+    public final static String TRANSLET_CACHE = "translet-cache";
 
     /**
      * This error listener is used only for this factory and is not passed to
@@ -196,6 +198,13 @@ public class TransformerFactoryImpl
      */
     private boolean _useClasspath = false;
 
+    /**
+     * If this is set to <code>true</code>, translets compiled from stream
+     * sources are kept in a cache shared by all factories, and an unchanged
+     * stylesheet compiled with the same settings is not compiled again.
+     */
+    private boolean _useTransletCache = false;
+
     /**
      * Number of indent spaces when indentation is turned on.
      */
@@ -330,6 +339,9 @@ public class TransformerFactoryImpl
         else if (name.equals(AUTO_TRANSLET)) {
             return new Boolean(_autoTranslet);
         }
+        else if (name.equals(TRANSLET_CACHE)) {
+            return new Boolean(_useTransletCache);
+        }
         else if (name.equals(ENABLE_INLINING)) {
             if (_enableInlining)
               return Boolean.TRUE;
@@ -419,6 +431,16 @@ public class TransformerFactoryImpl
                 return;
             }
         }
+        else if (name.equals(TRANSLET_CACHE)) {
+            if (value instanceof Boolean) {
+                _useTransletCache = ((Boolean) value).booleanValue();
+                return;
+            }
+            else if (value instanceof String) {
+                _useTransletCache = ((String) value).equalsIgnoreCase("true");
+                return;
+            }
+        }
         else if (name.equals(DEBUG)) {
             if (value instanceof Boolean) {
                 _debug = ((Boolean) value).booleanValue();
@@ -910,6 +932,59 @@ public class TransformerFactoryImpl
             }
         }
 
+        // If _useTransletCache is true, reuse the translet compiled earlier
+        // from the same stylesheet content with the same settings. Not under
+        // a security manager, where a cached translet would skip the
+        // permission checks made while its included modules are read.
+        String cacheKey = null;
+        if (_useTransletCache && source instanceof StreamSource
+                && !_generateTranslet && !_autoTranslet && !_debug
+                && _uriResolver == null && _extensionClassLoader == null
+                && (_piParams == null || _piParams.get(source) == null)
+                && System.getSecurityManager() == null) {
+            TransletCache.BufferedStylesheet stylesheet;
+            try {
+                stylesheet = TransletCache.buffer((StreamSource) source,
+                                                  mayOpen(source));
+            }
+            catch (IOException e) {
+                // The stream has been partly read and cannot be compiled
+                resetTransientAttributes();
+                ErrorMsg err = new ErrorMsg(ErrorMsg.JAXP_COMPILE_ERR);
+                throw new TransformerConfigurationException(err.toString(), e);
+            }
+            if (stylesheet != null) {
+                cacheKey = getTransletCacheKey(stylesheet);
+                TransletCache.Entry cached = TransletCache.get(cacheKey);
+                if (cached != null) {
+                    // Extension classes are only loaded by the compiler
+                    // through an extension class loader, which bypasses
+                    // the cache, so a cached translet never has any.
+                    if (!_isNotSecureProcessing)
+                        _xsltcExtensionFunctions = Collections.emptyMap();
+                    resetTransientAttributes();
+
+                    // Report the warnings of the original compilation again
+                    if (_errorListener != this) {
+                        try {
+                            passWarningsToListener(cached.warnings);
+                        }
+                        catch (TransformerException e) {
+                            throw new TransformerConfigurationException(e);
+                        }
+                    }
+                    else {
+                        printWarnings(cached.warnings);
+                    }
+                    return new TemplatesImpl(cached.bytecodes,
+                        cached.transletName, cached.getOutputProperties(),
+                        _indentNumber, this);
+                }
+                // compile the buffered content; the original is consumed
+                source = stylesheet.source;
+            }
+        }
+
         // Create and initialize a stylesheet compiler
         final XSLTC xsltc = new XSLTC(_useServicesMechanism, _featureManager);
         if (_debug) xsltc.setDebug(true);
@@ -1039,10 +1114,70 @@ public class TransformerFactoryImpl
         throw exc;
     }
 
+        if (cacheKey != null) {
+            Vector<ErrorMsg> warnings = new Vector<>();
+            for (Object warning : xsltc.getWarnings()) {
+                warnings.add((ErrorMsg) warning);
+            }
+            TransletCache.put(cacheKey, new TransletCache.Entry(bytecodes,
+                transletName, xsltc.getOutputProperties(), warnings));
+        }
+
         return new TemplatesImpl(bytecodes, transletName,
             xsltc.getOutputProperties(), _indentNumber, this);
     }
 
+    /**
+     * Returns true if the stylesheet's system id may be read directly in
+     * order to look it up in the translet cache.
+     */
+    private boolean mayOpen(Source source) {
+        try {
+            return SecuritySupport.checkAccess(source.getSystemId(),
+                _accessExternalStylesheet, XalanConstants.ACCESS_EXTERNAL_ALL) == null;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the translet cache key for a stylesheet: its content digest
+     * and system id, and the factory settings the compiled code depends on.
+     */
+    private String getTransletCacheKey(TransletCache.BufferedStylesheet stylesheet) {
+        final StringBuilder key = new StringBuilder(stylesheet.digest);
+        key.append('|').append(stylesheet.source.getSystemId())
+           .append('|').append(_transletName)
+           .append('|').append(_packageName)
+           .append('|').append(_enableInlining)
+           .append('|').append(_isNotSecureProcessing)
+           .append('|').append(_useServicesMechanism)
+           .append('|').append(_accessExternalStylesheet)
+           .append('|').append(_accessExternalDTD);
+        // The compiler is given the features and the security manager, and
+        // the limits apply while it parses the stylesheet
+        for (FeatureManager.Feature feature : FeatureManager.Feature.values()) {
+            key.append('|').append(_featureManager.isFeatureEnabled(feature));
+        }
+        for (XMLSecurityManager.Limit limit : XMLSecurityManager.Limit.values()) {
+            key.append('|').append(_xmlSecurityManager.getLimit(limit));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Prints compiler warnings the way XSLTC.printWarnings does.
+     */
+    private static void printWarnings(Vector<ErrorMsg> warnings) {
+        if (warnings.size() > 0) {
+            System.err.println(new ErrorMsg(ErrorMsg.COMPILER_WARNING_KEY));
+            for (ErrorMsg warning : warnings) {
+                System.err.println("  " + warning);
+            }
+        }
+    }
+
     /**
      * javax.xml.transform.sax.SAXTransformerFactory implementation.
      * Get a TemplatesHandler object that can process SAX ContentHandler
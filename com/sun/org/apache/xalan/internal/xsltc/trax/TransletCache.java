@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.org.apache.xalan.internal.xsltc.trax;
+
+import com.sun.org.apache.xalan.internal.xsltc.compiler.util.ErrorMsg;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Vector;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * A cache of compiled translets shared by all TransformerFactoryImpl
+ * instances in the JVM. Entries are keyed by a digest of the stylesheet
+ * content together with its system id and the factory settings that
+ * influence compilation, so an unchanged stylesheet is only compiled once,
+ * whichever factory compiles it.
+ * <p>
+ * The cache holds bytecodes rather than classes; each TemplatesImpl still
+ * defines its translet in its own class loader. Entries are softly
+ * referenced, and at most MAX_ENTRIES of them are kept.
+ * <p>
+ * Included and imported stylesheet modules are not part of the key; the
+ * cache assumes they do not change while the JVM runs.
+ */
+final class TransletCache {
+
+    private TransletCache() {
+    }
+
+    /**
+     * The maximum number of compiled stylesheets kept in the cache.
+     */
+    private static final int MAX_ENTRIES = 512;
+
+    /**
+     * Least recently used translets are evicted first.
+     */
+    private static final Map<String, SoftReference<Entry>> _cache =
+        new LinkedHashMap<String, SoftReference<Entry>>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2468135791357924680L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, SoftReference<Entry>> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+    /**
+     * The result of compiling a stylesheet.
+     */
+    static final class Entry {
+        final byte[][] bytecodes;
+        final String transletName;
+        final Properties outputProperties;
+        final Vector<ErrorMsg> warnings;
+
+        Entry(byte[][] bytecodes, String transletName,
+              Properties outputProperties, Vector<ErrorMsg> warnings) {
+            this.bytecodes = bytecodes;
+            this.transletName = transletName;
+            this.outputProperties = outputProperties;
+            this.warnings = warnings;
+        }
+
+        /**
+         * Returns a copy of the output properties, since each
+         * TemplatesImpl may hand them out to applications.
+         */
+        Properties getOutputProperties() {
+            return (outputProperties == null) ? null
+                    : (Properties) outputProperties.clone();
+        }
+    }
+
+    /**
+     * A stylesheet that has been read into memory, so that it can be
+     * both hashed and compiled.
+     */
+    static final class BufferedStylesheet {
+        final StreamSource source;
+        final String digest;
+
+        BufferedStylesheet(StreamSource source, String digest) {
+            this.source = source;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Reads the content of a stream source into memory. Returns null if
+     * the content is not read here, in which case the caller compiles the
+     * original source as usual.
+     *
+     * @param source The stylesheet source.
+     * @param openSystemId true if a source with only a system id may be
+     *        opened by this method.
+     * @throws IOException if the input stream or reader of the source
+     *         fails. It has then been partly consumed and cannot be
+     *         compiled either.
+     */
+    static BufferedStylesheet buffer(StreamSource source, boolean openSystemId)
+        throws IOException
+    {
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+        final StreamSource buffered;
+        final InputStream stream = source.getInputStream();
+        final Reader reader = source.getReader();
+        if (stream != null) {
+            byte[] content = readFully(stream);
+            md.update(content);
+            buffered = new StreamSource(new ByteArrayInputStream(content));
+        }
+        else if (reader != null) {
+            CharArrayWriter writer = new CharArrayWriter();
+            char[] buf = new char[8192];
+            for (int n; (n = reader.read(buf)) != -1; ) {
+                writer.write(buf, 0, n);
+            }
+            char[] content = writer.toCharArray();
+            // Digest the UTF-16 code units as they are; a charset encoder
+            // would replace unpaired surrogates
+            ByteBuffer bytes = ByteBuffer.allocate(content.length * 2);
+            bytes.asCharBuffer().put(content);
+            md.update(bytes.array());
+            buffered = new StreamSource(new CharArrayReader(content));
+        }
+        else if (openSystemId && source.getSystemId() != null) {
+            byte[] content;
+            try (InputStream in = new URL(source.getSystemId()).openStream()) {
+                content = readFully(in);
+            }
+            catch (IOException e) {
+                // Nothing was consumed; the compiler reports the error
+                return null;
+            }
+            md.update(content);
+            buffered = new StreamSource(new ByteArrayInputStream(content));
+        }
+        else {
+            return null;
+        }
+        buffered.setSystemId(source.getSystemId());
+        buffered.setPublicId(source.getPublicId());
+        return new BufferedStylesheet(buffered, toHex(md.digest()));
+    }
+
+    /**
+     * Returns the cached translet for the given key, or null.
+     */
+    static Entry get(String key) {
+        synchronized (_cache) {
+            SoftReference<Entry> ref = _cache.get(key);
+            if (ref == null) {
+                return null;
+            }
+            Entry entry = ref.get();
+            if (entry == null) {
+                _cache.remove(key);
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Caches the translet compiled for the given key.
+     */
+    static void put(String key, Entry entry) {
+        synchronized (_cache) {
+            _cache.put(key, new SoftReference<>(entry));
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        for (int n; (n = in.read(buf)) != -1; ) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
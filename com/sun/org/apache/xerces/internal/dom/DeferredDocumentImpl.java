@@ -79,6 +79,19 @@ public class DeferredDocumentImpl
     /** Initial chunk size. */
     protected static final int INITIAL_CHUNK_COUNT = (1 << (13 - CHUNK_SHIFT));   // 32
 
+    /**
+     * Maximum length of the whitespace text values that are shared. An
+     * indentation run is a line break plus a few characters per level of
+     * nesting.
+     */
+    private static final int SHARED_WHITESPACE_MAX_LENGTH = 64;
+
+    /**
+     * Maximum number of distinct whitespace text values that are shared.
+     * Indentation yields about one distinct value per nesting depth.
+     */
+    private static final int SHARED_WHITESPACE_MAX_COUNT = 256;
+
     //
     // Data
     //
@@ -135,6 +148,15 @@ public class DeferredDocumentImpl
     private transient final StringBuilder fBufferStr = new StringBuilder();
     private transient final ArrayList fStrChunks = new ArrayList();
 
+    /**
+     * Whitespace text values already stored in fNodeValue. The DOM parser
+     * passes a new String for every text node, and a deferred text node
+     * keeps the String it gets from getNodeValueString once materialized,
+     * so a pretty-printed document would otherwise hold one copy of its
+     * indentation per element.
+     */
+    private transient HashMap<String, String> fSharedWhitespace;
+
     //
     // Constructors
     //
@@ -553,7 +575,7 @@ public class DeferredDocumentImpl
         int nodeIndex = createNode(Node.TEXT_NODE);
         int chunk = nodeIndex >> CHUNK_SHIFT;
         int index = nodeIndex & CHUNK_MASK;
-        setChunkValue(fNodeValue, data, chunk, index);
+        setChunkValue(fNodeValue, shareWhitespace(data), chunk, index);
         // use extra to store ignorableWhitespace info
         setChunkIndex(fNodeExtra, ignorableWhitespace ?  1 : 0, chunk, index);
 
@@ -562,6 +584,35 @@ public class DeferredDocumentImpl
 
     } // createDeferredTextNode(String,boolean):int
 
+    /**
+     * Returns the String already stored for an equal value if the given
+     * text value is short and consists of XML whitespace only, otherwise
+     * the value itself.
+     */
+    private String shareWhitespace(String data) {
+        final int length = data.length();
+        if (length == 0 || length > SHARED_WHITESPACE_MAX_LENGTH) {
+            return data;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = data.charAt(i);
+            if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+                return data;
+            }
+        }
+        if (fSharedWhitespace == null) {
+            fSharedWhitespace = new HashMap<>();
+        }
+        String shared = fSharedWhitespace.get(data);
+        if (shared != null) {
+            return shared;
+        }
+        if (fSharedWhitespace.size() < SHARED_WHITESPACE_MAX_COUNT) {
+            fSharedWhitespace.put(data, data);
+        }
+        return data;
+    } // shareWhitespace(String):String
+
     /** Creates a CDATA section node in the table. */
     public int createDeferredCDATASection(String data) {
 
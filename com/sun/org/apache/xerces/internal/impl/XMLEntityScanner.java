@@ -1111,7 +1111,14 @@ public class XMLEntityScanner implements XMLLocator  {
 
         while (fCurrentEntity.position < fCurrentEntity.count) {
             c = fCurrentEntity.ch[fCurrentEntity.position++];
-            if (!XMLChar.isContent(c)) {
+            // printable ASCII runs are checked inline; only markup
+            // delimiters, control and non-ASCII characters need the table
+            if (c >= 0x20 && c < 0x7F) {
+                if (c == '<' || c == '&' || c == ']') {
+                    fCurrentEntity.position--;
+                    break;
+                }
+            } else if (!XMLChar.isContent(c)) {
                 fCurrentEntity.position--;
                 break;
             }
@@ -1277,7 +1284,8 @@ public class XMLEntityScanner implements XMLLocator  {
             c = fCurrentEntity.ch[fCurrentEntity.position];
             if ((c == quote &&
                     (!fCurrentEntity.literal || isExternal)) ||
-                    c == '%' || !XMLChar.isContent(c)) {
+                    c == '%' || c == '<' || c == '&' || c == ']' ||
+                    ((c < 0x20 || c >= 0x7F) && !XMLChar.isContent(c))) {
                 break;
             }
             if (whiteSpaceInfoNeeded && c == '\t') {
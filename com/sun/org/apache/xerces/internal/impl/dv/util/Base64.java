@@ -202,9 +202,19 @@ public final class  Base64 {
         if (encoded == null)
             return null;
 
-        char[] base64Data = encoded.toCharArray();
-        // remove white spaces
-        int len = removeWhiteSpace(base64Data);
+        // decode straight from the string, skipping white spaces, instead
+        // of from a stripped copy of its characters; the length of the
+        // result is known once the trailing pads have been found
+        int length = encoded.length();
+        int len = 0;
+        int lastIndex = -1, beforeLastIndex = -1;
+        for (int i = 0; i < length; i++) {
+            if (!isWhiteSpace(encoded.charAt(i))) {
+                len++;
+                beforeLastIndex = lastIndex;
+                lastIndex = i;
+            }
+        }
 
         if (len%FOURBYTE != 0) {
             return null;//should be divisible by four
@@ -215,21 +225,33 @@ public final class  Base64 {
         if (numberQuadruple == 0)
             return new byte[0];
 
-        byte     decodedData[]      = null;
+        int      decodedLength      = numberQuadruple*3;
+        if (isPad(encoded.charAt(lastIndex))) {
+            decodedLength--;
+            if (isPad(encoded.charAt(beforeLastIndex)))
+                decodedLength--;
+        }
+
+        byte     decodedData[]      = new byte[decodedLength];
         byte     b1=0,b2=0,b3=0,b4=0;
         char     d1=0,d2=0,d3=0,d4=0;
 
         int i = 0;
         int encodedIndex = 0;
         int dataIndex    = 0;
-        decodedData      = new byte[ (numberQuadruple)*3];
 
         for (; i<numberQuadruple-1; i++) {
 
-            if (!isData( (d1 = base64Data[dataIndex++]) )||
-                !isData( (d2 = base64Data[dataIndex++]) )||
-                !isData( (d3 = base64Data[dataIndex++]) )||
-                !isData( (d4 = base64Data[dataIndex++]) ))
+            dataIndex = skipWhiteSpace(encoded, dataIndex);
+            d1 = encoded.charAt(dataIndex++);
+            dataIndex = skipWhiteSpace(encoded, dataIndex);
+            d2 = encoded.charAt(dataIndex++);
+            dataIndex = skipWhiteSpace(encoded, dataIndex);
+            d3 = encoded.charAt(dataIndex++);
+            dataIndex = skipWhiteSpace(encoded, dataIndex);
+            d4 = encoded.charAt(dataIndex++);
+
+            if (!isData(d1) || !isData(d2) || !isData(d3) || !isData(d4))
                 return null;//if found "no data" just return null
 
             b1 = base64Alphabet[d1];
@@ -242,34 +264,36 @@ public final class  Base64 {
             decodedData[encodedIndex++] = (byte)( b3<<6 | b4 );
         }
 
-        if (!isData( (d1 = base64Data[dataIndex++]) ) ||
-            !isData( (d2 = base64Data[dataIndex++]) )) {
+        dataIndex = skipWhiteSpace(encoded, dataIndex);
+        d1 = encoded.charAt(dataIndex++);
+        dataIndex = skipWhiteSpace(encoded, dataIndex);
+        d2 = encoded.charAt(dataIndex++);
+
+        if (!isData(d1) || !isData(d2)) {
             return null;//if found "no data" just return null
         }
 
         b1 = base64Alphabet[d1];
         b2 = base64Alphabet[d2];
 
-        d3 = base64Data[dataIndex++];
-        d4 = base64Data[dataIndex++];
+        dataIndex = skipWhiteSpace(encoded, dataIndex);
+        d3 = encoded.charAt(dataIndex++);
+        dataIndex = skipWhiteSpace(encoded, dataIndex);
+        d4 = encoded.charAt(dataIndex++);
         if (!isData( (d3 ) ) ||
             !isData( (d4 ) )) {//Check if they are PAD characters
             if (isPad( d3 ) && isPad( d4)) {               //Two PAD e.g. 3c[Pad][Pad]
                 if ((b2 & 0xf) != 0)//last 4 bits should be zero
                     return null;
-                byte[] tmp = new byte[ i*3 + 1 ];
-                System.arraycopy( decodedData, 0, tmp, 0, i*3 );
-                tmp[encodedIndex]   = (byte)(  b1 <<2 | b2>>4 ) ;
-                return tmp;
-            } else if (!isPad( d3) && isPad(d4)) {               //One PAD  e.g. 3cQ[Pad]
+                decodedData[encodedIndex]   = (byte)(  b1 <<2 | b2>>4 ) ;
+                return decodedData;
+            } else if (isData( d3) && isPad(d4)) {               //One PAD  e.g. 3cQ[Pad]
                 b3 = base64Alphabet[ d3 ];
                 if ((b3 & 0x3 ) != 0)//last 2 bits should be zero
                     return null;
-                byte[] tmp = new byte[ i*3 + 2 ];
-                System.arraycopy( decodedData, 0, tmp, 0, i*3 );
-                tmp[encodedIndex++] = (byte)(  b1 <<2 | b2>>4 );
-                tmp[encodedIndex]   = (byte)(((b2 & 0xf)<<4 ) |( (b3>>2) & 0xf) );
-                return tmp;
+                decodedData[encodedIndex++] = (byte)(  b1 <<2 | b2>>4 );
+                decodedData[encodedIndex]   = (byte)(((b2 & 0xf)<<4 ) |( (b3>>2) & 0xf) );
+                return decodedData;
             } else {
                 return null;//an error  like "3c[Pad]r", "3cdX", "3cXd", "3cXX" where X is non data
             }
@@ -285,6 +309,16 @@ public final class  Base64 {
         return decodedData;
     }
 
+    /**
+     * Returns the index of the first character at or after the given
+     * index that is not a white space.
+     */
+    private static int skipWhiteSpace(String data, int index) {
+        while (isWhiteSpace(data.charAt(index)))
+            index++;
+        return index;
+    }
+
     /**
      * remove WhiteSpace from MIME containing encoded Base64 data.
      *
@@ -59,22 +59,44 @@ public class SubstitutionGroupHandler {
             return exemplar;
         }
 
+        if (!allowsSubstitution(exemplar))
+            return null;
+
+        return getSubstitutingElemDecl(getGlobalElementDecl(element), exemplar);
+    }
+
+    // check whether any element other than the exemplar itself may
+    // substitute for the exemplar
+    public boolean allowsSubstitution(XSElementDecl exemplar) {
         // if the exemplar is not a global element decl, then it's not possible
         // to be substituted by another element.
         if (exemplar.fScope != XSConstants.SCOPE_GLOBAL)
-            return null;
+            return false;
 
         // if the decl blocks substitution, return false
         if ((exemplar.fBlock & XSConstants.DERIVATION_SUBSTITUTION) != 0)
-            return null;
+            return false;
+
+        return true;
+    }
 
+    // get the global element decl for an element with the given qname,
+    // or null if there is none
+    public XSElementDecl getGlobalElementDecl(QName element) {
         // get grammar of the element
         SchemaGrammar sGrammar = fGrammarBucket.getGrammar(element.uri);
         if (sGrammar == null)
             return null;
 
         // get the decl for the element
-        XSElementDecl eDecl = sGrammar.getGlobalElementDecl(element.localpart);
+        return sGrammar.getGlobalElementDecl(element.localpart);
+    }
+
+    // check whether a global element decl, as returned by
+    // getGlobalElementDecl, can substitute for an exemplar that allows
+    // substitution. this lets callers that check one element against
+    // several exemplars look up its decl only once
+    public XSElementDecl getSubstitutingElemDecl(XSElementDecl eDecl, XSElementDecl exemplar) {
         if (eDecl == null)
             return null;
 
@@ -288,6 +288,10 @@ public class XSDFACM
         int nextState = 0;
         int elemIndex = 0;
         Object matchingDecl = null;
+        // the global decl of curElem; looked up when the first exemplar
+        // that allows substitution is reached, then reused for the rest
+        XSElementDecl globalDecl = null;
+        boolean globalDeclFound = false;
 
         for (; elemIndex < fElemMapSize; elemIndex++) {
             nextState = fTransTable[curState][elemIndex];
@@ -295,7 +299,21 @@ public class XSDFACM
                 continue;
             int type = fElemMapType[elemIndex] ;
             if (type == XSParticleDecl.PARTICLE_ELEMENT) {
-                matchingDecl = subGroupHandler.getMatchingElemDecl(curElem, (XSElementDecl)fElemMap[elemIndex]);
+                XSElementDecl exemplar = (XSElementDecl)fElemMap[elemIndex];
+                if (curElem.localpart == exemplar.fName &&
+                    curElem.uri == exemplar.fTargetNamespace) {
+                    matchingDecl = exemplar;
+                }
+                else if (subGroupHandler.allowsSubstitution(exemplar)) {
+                    if (!globalDeclFound) {
+                        globalDecl = subGroupHandler.getGlobalElementDecl(curElem);
+                        globalDeclFound = true;
+                    }
+                    matchingDecl = subGroupHandler.getSubstitutingElemDecl(globalDecl, exemplar);
+                }
+                else {
+                    matchingDecl = null;
+                }
                 if (matchingDecl != null) {
                     // Increment counter if constant space algorithm applies
                     if (fElemMapCounter[elemIndex] >= 0) {
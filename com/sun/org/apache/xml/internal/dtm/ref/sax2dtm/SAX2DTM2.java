@@ -33,6 +33,7 @@ import com.sun.org.apache.xml.internal.res.XMLErrorResources;
 import com.sun.org.apache.xml.internal.serializer.SerializationHandler;
 
 import javax.xml.transform.Source;
+import java.util.HashMap;
 import java.util.Vector;
 import com.sun.org.apache.xml.internal.utils.SuballocatedIntVector;
 import org.xml.sax.*;
@@ -1806,6 +1807,23 @@ public class SAX2DTM2 extends SAX2DTM
   // The current index into the m_values Vector.
   private int m_valueIndex = 0;
 
+  // The SAX parser hands startElement a new String for every attribute
+  // value, and m_values keeps each of them for as long as the DTM is
+  // alive, usually the whole transformation. Attribute values that are
+  // identical across elements, such as type="..." or status="...", are
+  // looked up here so that their m_values slots point to one String.
+  // Namespace URIs are already shared through m_values.indexOf.
+  private HashMap<String, String> m_sharedValues =
+    new HashMap<String, String>();
+
+  // Longer attribute values are mostly free text and rarely repeat.
+  private static final int SHARED_VALUE_MAX_LENGTH = 32;
+
+  // Once this many distinct values are held, later values are stored
+  // unshared; the values seen first in a document are usually its
+  // vocabulary, and ids or counters must not grow the map without bound.
+  private static final int SHARED_VALUES_MAX_SIZE = 4096;
+
   // The maximum value of the current node index.
   private int m_maxNodeIndex;
 
@@ -1881,9 +1899,10 @@ public class SAX2DTM2 extends SAX2DTM
     m_buildIdIndex = buildIdIndex;
 
     // Some documents do not have attribute nodes. That is why
-    // we set the initial size of this Vector to be small and set
-    // the increment to a bigger number.
-    m_values = new Vector(32, 512);
+    // we set the initial size of this Vector to be small. It grows
+    // by doubling; a fixed increment makes building a document with
+    // millions of values quadratic in copying.
+    m_values = new Vector(32);
 
     m_maxNodeIndex = 1 << DTMManager.IDENT_DTM_NODE_BITS;
 
@@ -2169,7 +2188,7 @@ public class SAX2DTM2 extends SAX2DTM
       if(null == valString)
         valString = "";
 
-      m_values.addElement(valString);
+      m_values.addElement(sharedValue(valString));
       int val = m_valueIndex++;
 
       if (attrLocalName.length() != attrQName.length())
@@ -2318,6 +2337,34 @@ public class SAX2DTM2 extends SAX2DTM
     m_nextsib_map = m_nextsib.getMap();
     m_firstch_map = m_firstch.getMap();
     m_parent_map  = m_parent.getMap();
+
+    // No more values are added once the document is built, and the
+    // DTM outlives its build by far: drop the spare capacity and the
+    // lookup map.
+    m_values.trimToSize();
+    m_sharedValues = null;
+  }
+
+  /**
+   * Return the String already stored in m_values for an equal short
+   * attribute value, or the value itself if there is none or the
+   * document has been built.
+   *
+   * @param value The attribute value.
+   * @return A String equal to value.
+   */
+  private String sharedValue(String value)
+  {
+    if (m_sharedValues == null || value.length() > SHARED_VALUE_MAX_LENGTH)
+      return value;
+
+    String shared = m_sharedValues.get(value);
+    if (shared != null)
+      return shared;
+
+    if (m_sharedValues.size() < SHARED_VALUES_MAX_SIZE)
+      m_sharedValues.put(value, value);
+    return value;
   }
 
   /**
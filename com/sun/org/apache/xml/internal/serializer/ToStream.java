@@ -1974,13 +1974,17 @@ abstract public class ToStream extends SerializerBase
 
         for (int i = 0; i < len; )
         {
-            char ch = stringChars[i];
-            if (escapingNotNeeded(ch) && (!m_charInfo.isSpecialAttrChar(ch)))
-            {
-                writer.write(ch);
+            // Write a run of characters needing no special processing
+            // with one call, rather than one writer call per character
+            final int startClean = i;
+            char ch;
+            while (i < len
+                    && escapingNotNeeded(ch = stringChars[i])
+                    && !m_charInfo.isSpecialAttrChar(ch))
                 i++;
-            }
-            else
+            if (i > startClean)
+                writer.write(stringChars, startClean, i - startClean);
+            if (i < len)
             { // I guess the parser doesn't normalize cr/lf in attributes. -sb
 //                if ((CharInfo.S_CARRIAGERETURN == ch)
 //                    && ((i + 1) < len)
@@ -1990,7 +1994,7 @@ abstract public class ToStream extends SerializerBase
 //                    ch = CharInfo.S_LINEFEED;
 //                }
 
-                i = accumDefaultEscape(writer, ch, i, stringChars, len, false, true);
+                i = accumDefaultEscape(writer, stringChars[i], i, stringChars, len, false, true);
             }
         }
 
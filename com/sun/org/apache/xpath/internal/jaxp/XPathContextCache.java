@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.org.apache.xpath.internal.jaxp;
+
+import com.sun.org.apache.xalan.internal.utils.FeatureManager;
+import com.sun.org.apache.xpath.internal.XPathContext;
+import javax.xml.xpath.XPathFunctionResolver;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Node;
+
+/**
+ * Supplies the XPathContext used to evaluate a JAXP XPath expression.
+ * <p>
+ * Each XPathContext wraps the DOM it is evaluated over in a DOM2DTM.
+ * Building that model dominates the cost of evaluating small expressions,
+ * so when the xpathContextCache feature is enabled the context is kept
+ * per thread and reused for as long as evaluations target the same
+ * document with the same function resolution settings. The DTM, and the
+ * nodes it has already walked, then survive from one evaluation to the
+ * next.
+ * <p>
+ * The DTM does not track changes to the DOM, so the document must not be
+ * modified while the feature is enabled. Each thread keeps the context of
+ * the last document it evaluated over reachable until it moves on to
+ * another document.
+ */
+final class XPathContextCache {
+
+    private static final ThreadLocal<Entry> _cache = new ThreadLocal<>();
+
+    private XPathContextCache() {
+    }
+
+    /**
+     * Returns the XPathContext to evaluate an expression with.
+     *
+     * @param contextNode The context node, or null.
+     * @param functionResolver The function resolver, or null.
+     * @param featureSecureProcessing The secure processing state.
+     * @param featureManager The feature manager of the XPath factory.
+     */
+    static XPathContext getXPathContext(Node contextNode,
+            XPathFunctionResolver functionResolver,
+            boolean featureSecureProcessing, FeatureManager featureManager) {
+        Node document = null;
+        if (contextNode != null && featureManager != null &&
+                featureManager.isFeatureEnabled(
+                        FeatureManager.Feature.ORACLE_XPATH_CONTEXT_CACHE)) {
+            document = getDocument(contextNode);
+        }
+        if (document == null) {
+            return newXPathContext(functionResolver, featureSecureProcessing,
+                    featureManager);
+        }
+
+        // the extension provider captures this setting when created
+        boolean extensionsEnabled = featureManager.isFeatureEnabled(
+                FeatureManager.Feature.ORACLE_ENABLE_EXTENSION_FUNCTION);
+        Entry entry = _cache.get();
+        if (entry != null && !entry.inUse && entry.document == document &&
+                entry.functionResolver == functionResolver &&
+                entry.featureSecureProcessing == featureSecureProcessing &&
+                entry.extensionsEnabled == extensionsEnabled) {
+            entry.inUse = true;
+            return entry.xpathContext;
+        }
+        if (entry != null && entry.inUse) {
+            // an evaluation nested in an extension function call
+            return newXPathContext(functionResolver, featureSecureProcessing,
+                    featureManager);
+        }
+        entry = new Entry(document, functionResolver, featureSecureProcessing,
+                extensionsEnabled, newXPathContext(functionResolver,
+                        featureSecureProcessing, featureManager));
+        entry.inUse = true;
+        _cache.set(entry);
+        return entry.xpathContext;
+    }
+
+    /**
+     * Signals the end of an evaluation with a context obtained from
+     * {@link #getXPathContext}.
+     */
+    static void release(XPathContext xpathContext) {
+        Entry entry = _cache.get();
+        if (entry != null && entry.xpathContext == xpathContext) {
+            entry.inUse = false;
+        }
+    }
+
+    private static XPathContext newXPathContext(
+            XPathFunctionResolver functionResolver,
+            boolean featureSecureProcessing, FeatureManager featureManager) {
+        if (functionResolver != null) {
+            JAXPExtensionsProvider jep = new JAXPExtensionsProvider(
+                    functionResolver, featureSecureProcessing, featureManager);
+            return new XPathContext(jep);
+        }
+        return new XPathContext();
+    }
+
+    /**
+     * Returns the document containing the node, or null if the node is not
+     * part of a document tree. Nodes of detached subtrees each get a DTM of
+     * their own, so they are never cached.
+     */
+    private static Node getDocument(Node node) {
+        Node root = node;
+        Node p = (node.getNodeType() == Node.ATTRIBUTE_NODE) ?
+                ((Attr) node).getOwnerElement() : node.getParentNode();
+        for (; p != null; p = p.getParentNode()) {
+            root = p;
+        }
+        return (root.getNodeType() == Node.DOCUMENT_NODE) ? root : null;
+    }
+
+    private static final class Entry {
+        final Node document;
+        final XPathFunctionResolver functionResolver;
+        final boolean featureSecureProcessing;
+        final boolean extensionsEnabled;
+        final XPathContext xpathContext;
+        boolean inUse;
+
+        Entry(Node document, XPathFunctionResolver functionResolver,
+              boolean featureSecureProcessing, boolean extensionsEnabled,
+              XPathContext xpathContext) {
+            this.document = document;
+            this.functionResolver = functionResolver;
+            this.featureSecureProcessing = featureSecureProcessing;
+            this.extensionsEnabled = extensionsEnabled;
+            this.xpathContext = xpathContext;
+        }
+    }
+}
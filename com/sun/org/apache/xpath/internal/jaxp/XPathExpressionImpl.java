@@ -112,27 +112,26 @@ public class XPathExpressionImpl  implements javax.xml.xpath.XPathExpression{
 
     private XObject eval ( Object contextItem )
             throws javax.xml.transform.TransformerException {
-        com.sun.org.apache.xpath.internal.XPathContext xpathSupport = null;
-        if ( functionResolver != null ) {
-            JAXPExtensionsProvider jep = new JAXPExtensionsProvider(
-                    functionResolver, featureSecureProcessing, featureManager );
-            xpathSupport = new com.sun.org.apache.xpath.internal.XPathContext( jep );
-        } else {
-            xpathSupport = new com.sun.org.apache.xpath.internal.XPathContext();
-        }
+        Node contextNode = (Node)contextItem;
+        com.sun.org.apache.xpath.internal.XPathContext xpathSupport =
+                XPathContextCache.getXPathContext(contextNode,
+                        functionResolver, featureSecureProcessing, featureManager);
 
         xpathSupport.setVarStack(new JAXPVariableStack(variableResolver));
         XObject xobj = null;
 
-        Node contextNode = (Node)contextItem;
         // We always need to have a ContextNode with Xalan XPath implementation
         // To allow simple expression evaluation like 1+1 we are setting
         // dummy Document as Context Node
 
-        if ( contextNode == null )
-            xobj = xpath.execute(xpathSupport, DTM.NULL, prefixResolver);
-        else
-            xobj = xpath.execute(xpathSupport, contextNode, prefixResolver);
+        try {
+            if ( contextNode == null )
+                xobj = xpath.execute(xpathSupport, DTM.NULL, prefixResolver);
+            else
+                xobj = xpath.execute(xpathSupport, contextNode, prefixResolver);
+        } finally {
+            XPathContextCache.release(xpathSupport);
+        }
 
         return xobj;
     }
@@ -190,25 +190,25 @@ public class XPathImpl implements javax.xml.xpath.XPath {
         throws javax.xml.transform.TransformerException {
         com.sun.org.apache.xpath.internal.XPath xpath = new com.sun.org.apache.xpath.internal.XPath( expression,
             null, prefixResolver, com.sun.org.apache.xpath.internal.XPath.SELECT );
-        com.sun.org.apache.xpath.internal.XPathContext xpathSupport = null;
-        if ( functionResolver != null ) {
-            JAXPExtensionsProvider jep = new JAXPExtensionsProvider(
-                    functionResolver, featureSecureProcessing, featureManager );
-            xpathSupport = new com.sun.org.apache.xpath.internal.XPathContext( jep );
-        } else {
-            xpathSupport = new com.sun.org.apache.xpath.internal.XPathContext();
-        }
+        Node contextNode = (contextItem instanceof Node) ? (Node)contextItem : null;
+        com.sun.org.apache.xpath.internal.XPathContext xpathSupport =
+                XPathContextCache.getXPathContext(contextNode,
+                        functionResolver, featureSecureProcessing, featureManager);
 
         XObject xobj = null;
 
         xpathSupport.setVarStack(new JAXPVariableStack(variableResolver));
 
         // If item is null, then we will create a a Dummy contextNode
-        if ( contextItem instanceof Node ) {
-            xobj = xpath.execute (xpathSupport, (Node)contextItem,
-                    prefixResolver );
-        } else {
-            xobj = xpath.execute ( xpathSupport, DTM.NULL, prefixResolver );
+        try {
+            if ( contextNode != null ) {
+                xobj = xpath.execute (xpathSupport, contextNode,
+                        prefixResolver );
+            } else {
+                xobj = xpath.execute ( xpathSupport, DTM.NULL, prefixResolver );
+            }
+        } finally {
+            XPathContextCache.release(xpathSupport);
         }
 
         return xobj;
@@ -541,12 +541,55 @@ public final class Integer extends Number implements Comparable<Integer> {
         if (s == null) {
             throw new NumberFormatException("null");
         }
+        return parseInt(s, 0, s.length(), radix);
+    }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code int} in the
+     * specified {@code radix}, beginning at the specified {@code beginIndex}
+     * and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.
+     *
+     * <p>Parsing a range of a larger sequence this way avoids the
+     * intermediate {@code String} that {@code subSequence} or
+     * {@code substring} followed by {@link #parseInt(String, int)} would
+     * allocate. This method is package-private; it is not part of the
+     * {@code Integer} API.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code int} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code int} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @see        #parseInt(String, int)
+     */
+    static int parseInt(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
         if (radix < Character.MIN_RADIX) {
             throw new NumberFormatException("radix " + radix +
                                             " less than Character.MIN_RADIX");
         }
-
         if (radix > Character.MAX_RADIX) {
             throw new NumberFormatException("radix " + radix +
                                             " greater than Character.MAX_RADIX");
@@ -554,42 +597,47 @@ public final class Integer extends Number implements Comparable<Integer> {
 
         int result = 0;
         boolean negative = false;
-        int i = 0, len = s.length();
+        int i = beginIndex;
         int limit = -Integer.MAX_VALUE;
         int multmin;
         int digit;
 
-        if (len > 0) {
-            char firstChar = s.charAt(0);
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
             if (firstChar < '0') { // Possible leading "+" or "-"
                 if (firstChar == '-') {
                     negative = true;
                     limit = Integer.MIN_VALUE;
                 } else if (firstChar != '+')
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
 
-                if (len == 1) // Cannot have lone "+" or "-"
-                    throw NumberFormatException.forInputString(s);
+                if (endIndex - beginIndex == 1) // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 i++;
             }
             multmin = limit / radix;
-            while (i < len) {
+            while (i < endIndex) {
                 // Accumulating negatively avoids surprises near MAX_VALUE
                 digit = Character.digit(s.charAt(i++),radix);
                 if (digit < 0) {
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 }
                 if (result < multmin) {
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 }
                 result *= radix;
                 if (result < limit + digit) {
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 }
                 result -= digit;
             }
         } else {
-            throw NumberFormatException.forInputString(s);
+            throw NumberFormatException.forInputString(s, beginIndex, endIndex);
         }
         return negative ? result : -result;
     }
@@ -1186,7 +1234,7 @@ public final class Integer extends Number implements Comparable<Integer> {
             throw new NumberFormatException("Sign character in wrong position");
 
         try {
-            result = Integer.valueOf(nm.substring(index), radix);
+            result = Integer.valueOf(parseInt(nm, index, nm.length(), radix));
             result = negative ? Integer.valueOf(-result.intValue()) : result;
         } catch (NumberFormatException e) {
             // If number is Integer.MIN_VALUE, we'll end up here. The next line
@@ -551,7 +551,51 @@ public final class Long extends Number implements Comparable<Long> {
         if (s == null) {
             throw new NumberFormatException("null");
         }
+        return parseLong(s, 0, s.length(), radix);
+    }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code long} in the
+     * specified {@code radix}, beginning at the specified {@code beginIndex}
+     * and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.
+     *
+     * <p>Parsing a range of a larger sequence this way avoids the
+     * intermediate {@code String} that {@code subSequence} or
+     * {@code substring} followed by {@link #parseLong(String, int)} would
+     * allocate. This method is package-private; it is not part of the
+     * {@code Long} API.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code long} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code long} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @see        #parseLong(String, int)
+     */
+    static long parseLong(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
         if (radix < Character.MIN_RADIX) {
             throw new NumberFormatException("radix " + radix +
                                             " less than Character.MIN_RADIX");
@@ -563,42 +607,47 @@ public final class Long extends Number implements Comparable<Long> {
 
         long result = 0;
         boolean negative = false;
-        int i = 0, len = s.length();
+        int i = beginIndex;
         long limit = -Long.MAX_VALUE;
         long multmin;
         int digit;
 
-        if (len > 0) {
-            char firstChar = s.charAt(0);
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
             if (firstChar < '0') { // Possible leading "+" or "-"
                 if (firstChar == '-') {
                     negative = true;
                     limit = Long.MIN_VALUE;
                 } else if (firstChar != '+')
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
 
-                if (len == 1) // Cannot have lone "+" or "-"
-                    throw NumberFormatException.forInputString(s);
+                if (endIndex - beginIndex == 1) // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 i++;
             }
             multmin = limit / radix;
-            while (i < len) {
+            while (i < endIndex) {
                 // Accumulating negatively avoids surprises near MAX_VALUE
                 digit = Character.digit(s.charAt(i++),radix);
                 if (digit < 0) {
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 }
                 if (result < multmin) {
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 }
                 result *= radix;
                 if (result < limit + digit) {
-                    throw NumberFormatException.forInputString(s);
+                    throw NumberFormatException.forInputString(s, beginIndex,
+                                                               endIndex);
                 }
                 result -= digit;
             }
         } else {
-            throw NumberFormatException.forInputString(s);
+            throw NumberFormatException.forInputString(s, beginIndex, endIndex);
         }
         return negative ? result : -result;
     }
@@ -917,7 +966,7 @@ public final class Long extends Number implements Comparable<Long> {
             throw new NumberFormatException("Sign character in wrong position");
 
         try {
-            result = Long.valueOf(nm.substring(index), radix);
+            result = Long.valueOf(parseLong(nm, index, nm.length(), radix));
             result = negative ? Long.valueOf(-result.longValue()) : result;
         } catch (NumberFormatException e) {
             // If number is Long.MIN_VALUE, we'll end up here. The next line
@@ -64,4 +64,17 @@ class NumberFormatException extends IllegalArgumentException {
     static NumberFormatException forInputString(String s) {
         return new NumberFormatException("For input string: \"" + s + "\"");
     }
+
+    /**
+     * Factory method for making a {@code NumberFormatException}
+     * given the specified range of the input which caused the error.
+     *
+     * @param   s   the input containing the range causing the error
+     * @param   beginIndex   the beginning index, inclusive.
+     * @param   endIndex     the ending index, exclusive.
+     */
+    static NumberFormatException forInputString(CharSequence s,
+            int beginIndex, int endIndex) {
+        return forInputString(s.subSequence(beginIndex, endIndex).toString());
+    }
 }
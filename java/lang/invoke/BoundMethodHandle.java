@@ -707,6 +707,8 @@ import jdk.internal.org.objectweb.asm.MethodVisitor;
                 UNSAFE.defineClass(className, classFile, 0, classFile.length,
                                    BoundMethodHandle.class.getClassLoader(), null)
                     .asSubclass(BoundMethodHandle.class);
+            if (TRACE_SPINNING)
+                traceSpinning(SPIN_SPECIES, types);
 
             return bmhClass;
         }
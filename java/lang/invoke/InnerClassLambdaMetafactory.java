@@ -323,6 +323,11 @@ import static jdk.internal.org.objectweb.asm.Opcodes.*;
             new PropertyPermission("user.dir", "read"));
         }
 
+        if (MethodHandleStatics.TRACE_SPINNING) {
+            MethodHandleStatics.traceSpinning(MethodHandleStatics.SPIN_LAMBDA_PROXY,
+                    lambdaClassName + " " + samBase.getName() + " -> " +
+                    implMethodClassName + "." + implMethodName + implMethodDesc);
+        }
         return UNSAFE.defineAnonymousClass(targetClass, classBytes, null);
     }
 
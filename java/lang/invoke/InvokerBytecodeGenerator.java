@@ -274,6 +274,8 @@ class InvokerBytecodeGenerator {
      */
     private MemberName loadMethod(byte[] classFile) {
         Class<?> invokerClass = loadAndInitializeInvokerClass(classFile, cpPatches(classFile));
+        if (TRACE_SPINNING)
+            traceSpinning(SPIN_LAMBDA_FORM, className + "." + invokerName + invokerType);
         return resolveInvokerMember(invokerClass, invokerName, invokerType);
     }
 
@@ -50,9 +50,10 @@ import sun.misc.Unsafe;
     static final int PROFILE_LEVEL;
     static final boolean PROFILE_GWT;
     static final int CUSTOMIZE_THRESHOLD;
+    static final boolean TRACE_SPINNING;
 
     static {
-        final Object[] values = new Object[9];
+        final Object[] values = new Object[10];
         AccessController.doPrivileged(new PrivilegedAction<Void>() {
                 public Void run() {
                     values[0] = Boolean.getBoolean("java.lang.invoke.MethodHandle.DEBUG_NAMES");
@@ -64,6 +65,7 @@ import sun.misc.Unsafe;
                     values[6] = Integer.getInteger("java.lang.invoke.MethodHandle.PROFILE_LEVEL", 0);
                     values[7] = Boolean.parseBoolean(System.getProperty("java.lang.invoke.MethodHandle.PROFILE_GWT", "true"));
                     values[8] = Integer.getInteger("java.lang.invoke.MethodHandle.CUSTOMIZE_THRESHOLD", 127);
+                    values[9] = Boolean.getBoolean("java.lang.invoke.MethodHandle.TRACE_SPINNING");
                     return null;
                 }
             });
@@ -76,6 +78,7 @@ import sun.misc.Unsafe;
         PROFILE_LEVEL             = (Integer) values[6];
         PROFILE_GWT               = (Boolean) values[7];
         CUSTOMIZE_THRESHOLD       = (Integer) values[8];
+        TRACE_SPINNING            = (Boolean) values[9];
 
         if (CUSTOMIZE_THRESHOLD < -1 || CUSTOMIZE_THRESHOLD > 127) {
             throw newInternalError("CUSTOMIZE_THRESHOLD should be in [-1...127] range");
@@ -92,6 +95,27 @@ import sun.misc.Unsafe;
                 TRACE_METHOD_LINKAGE);
     }
 
+    /** Kinds of classes spun at runtime, as reported by {@link #traceSpinning}. */
+    /*non-public*/ static final int
+            SPIN_LAMBDA_FORM   = 0,  // compiled LambdaForm invoker
+            SPIN_SPECIES       = 1,  // BoundMethodHandle species
+            SPIN_LAMBDA_PROXY  = 2;  // lambda expression proxy class
+    private static final String[] SPIN_TAGS = { "[LF_SPIN]", "[SPECIES_SPIN]", "[LAMBDA_SPIN]" };
+    private static final int[] SPIN_COUNTS = new int[SPIN_TAGS.length];
+
+    /** Report a class spun at runtime, together with the running count of
+     *  classes of the same kind.  The output lists the shapes an application
+     *  needs at startup, which is what a pre-generation step has to cover.
+     */
+    /*non-public*/ static void traceSpinning(int kind, String description) {
+        if (!TRACE_SPINNING)  return;
+        int count;
+        synchronized (SPIN_COUNTS) {
+            count = ++SPIN_COUNTS[kind];
+        }
+        System.out.println(SPIN_TAGS[kind] + " " + count + " " + description);
+    }
+
     /*non-public*/ static String getNameString(MethodHandle target, MethodType type) {
         if (type == null)
             type = target.type();
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.security.AccessController;
+import sun.reflect.CallerSensitive;
+import sun.reflect.ConstructorAccessor;
+import sun.reflect.MethodAccessor;
+import sun.security.action.GetPropertyAction;
+
+/** Package-private class creating method and constructor accessors
+    backed by method handles.
+
+    <P> By default reflective invocation starts on native accessors
+    and, after <code>sun.reflect.inflationThreshold</code> calls,
+    generates one bytecode accessor class per member. When the
+    <code>sun.reflect.useMethodHandleAccessors</code> system property
+    is <code>true</code>, Method and Constructor instead use a direct
+    method handle adapted to a spread <code>Object[]</code> invocation.
+    The lambda forms behind such adaptations are cached by
+    java.lang.invoke per erased signature, so no class is defined per
+    reflected member. The handle is held in an instance field and is
+    not a constant to the JIT, so this mode bounds class generation
+    rather than speeding up the call itself. </P>
+
+    <P> Members that cannot be represented this way (caller-sensitive
+    methods, members of java.lang.invoke, abstract classes) yield
+    <code>null</code>, and the caller falls back to the accessors of
+    sun.reflect.ReflectionFactory. </P> */
+
+final class MethodHandleAccessors {
+    private MethodHandleAccessors() {}
+
+    // Read lazily, since reflection is used before system properties
+    // are initialized during VM startup
+    private static volatile boolean initted = false;
+    private static boolean enabled = false;
+
+    private static boolean enabled() {
+        if (!initted) {
+            if (!sun.misc.VM.isBooted()) {
+                return false;
+            }
+            String val = AccessController.doPrivileged(
+                new GetPropertyAction("sun.reflect.useMethodHandleAccessors"));
+            enabled = "true".equals(val);
+            initted = true;
+        }
+        return enabled;
+    }
+
+    /** Returns a method handle backed accessor for the given method,
+        or null if the method handle mode is disabled or the method
+        is not supported. */
+    static MethodAccessor newMethodAccessor(Method method) {
+        if (!enabled() || !isSupported(method.getDeclaringClass()) ||
+            method.isAnnotationPresent(CallerSensitive.class)) {
+            return null;
+        }
+        Method root = (Method) method.getRoot();
+        Method copy = (root != null) ? root.copy() : method.copy();
+        copy.override = true;
+        try {
+            // The copy is accessible, so unreflect resolves it with the
+            // trusted lookup; MethodHandles.lookup() would reject a
+            // java.* lookup class on the boot class path
+            MethodHandle target = MethodHandles.publicLookup().unreflect(copy);
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            Class<?>[] ptypes = method.getParameterTypes();
+            // A varargs method takes its trailing array like any other
+            // argument, as with the native accessors
+            target = target.asFixedArity();
+            target = target.asType(target.type().generic())
+                           .asSpreader(Object[].class, ptypes.length);
+            if (isStatic) {
+                // Accept and ignore the receiver to share one call shape
+                target = MethodHandles.dropArguments(target, 0, Object.class);
+            }
+            return new MethodHandleMethodAccessor(method.getDeclaringClass(),
+                                                  isStatic, ptypes, target);
+        } catch (IllegalAccessException | RuntimeException | Error e) {
+            return null;
+        }
+    }
+
+    /** Returns a method handle backed accessor for the given
+        constructor, or null if the method handle mode is disabled or
+        the constructor is not supported. */
+    static ConstructorAccessor newConstructorAccessor(Constructor<?> c) {
+        Class<?> declaringClass = c.getDeclaringClass();
+        if (!enabled() || !isSupported(declaringClass) ||
+            Modifier.isAbstract(declaringClass.getModifiers()) ||
+            declaringClass == Class.class) {
+            return null;
+        }
+        Constructor<?> root = (Constructor<?>) c.getRoot();
+        Constructor<?> copy = (root != null) ? root.copy() : c.copy();
+        copy.override = true;
+        try {
+            MethodHandle target =
+                MethodHandles.publicLookup().unreflectConstructor(copy);
+            Class<?>[] ptypes = c.getParameterTypes();
+            target = target.asFixedArity();
+            target = target.asType(target.type().generic())
+                           .asSpreader(Object[].class, ptypes.length);
+            return new MethodHandleConstructorAccessor(ptypes, target);
+        } catch (IllegalAccessException | RuntimeException | Error e) {
+            return null;
+        }
+    }
+
+    private static boolean isSupported(Class<?> declaringClass) {
+        // Method handles themselves reflect on java.lang.invoke; keep
+        // those on the native accessors to avoid bootstrap recursion
+        return !declaringClass.getName().startsWith("java.lang.invoke.");
+    }
+
+    /** Checks the arguments the way the native accessors do. Once
+        they pass, the adaptation of the method handle cannot fail, so
+        any exception raised by invoking it comes from the target. */
+    private static Object[] checkArguments(Class<?>[] ptypes, Object[] args) {
+        if (args == null) {
+            args = new Object[0];
+        }
+        if (args.length != ptypes.length) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        for (int i = 0; i < ptypes.length; i++) {
+            if (!isAssignable(ptypes[i], args[i])) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+        return args;
+    }
+
+    /** Returns true if arg can be passed for a parameter of the given
+        type, allowing unboxing followed by a widening conversion. */
+    private static boolean isAssignable(Class<?> type, Object arg) {
+        if (!type.isPrimitive()) {
+            return arg == null || type.isInstance(arg);
+        }
+        if (arg == null) {
+            return false;
+        }
+        Class<?> c = arg.getClass();
+        if (type == int.class) {
+            return c == Integer.class || c == Character.class ||
+                   c == Short.class || c == Byte.class;
+        } else if (type == long.class) {
+            return c == Long.class || isAssignable(int.class, arg);
+        } else if (type == float.class) {
+            return c == Float.class || isAssignable(long.class, arg);
+        } else if (type == double.class) {
+            return c == Double.class || isAssignable(float.class, arg);
+        } else if (type == short.class) {
+            return c == Short.class || c == Byte.class;
+        } else if (type == char.class) {
+            return c == Character.class;
+        } else if (type == byte.class) {
+            return c == Byte.class;
+        } else {
+            return c == Boolean.class;
+        }
+    }
+
+    private static final class MethodHandleMethodAccessor
+        implements MethodAccessor
+    {
+        private final Class<?> declaringClass;
+        private final boolean isStatic;
+        private final Class<?>[] ptypes;
+        // (Object, Object[])Object
+        private final MethodHandle target;
+
+        MethodHandleMethodAccessor(Class<?> declaringClass, boolean isStatic,
+                                   Class<?>[] ptypes, MethodHandle target) {
+            this.declaringClass = declaringClass;
+            this.isStatic = isStatic;
+            this.ptypes = ptypes;
+            this.target = target;
+        }
+
+        public Object invoke(Object obj, Object[] args)
+            throws IllegalArgumentException, InvocationTargetException
+        {
+            if (!isStatic) {
+                if (obj == null) {
+                    throw new NullPointerException();
+                }
+                if (!declaringClass.isInstance(obj)) {
+                    throw new IllegalArgumentException(
+                        "object is not an instance of declaring class");
+                }
+            }
+            args = checkArguments(ptypes, args);
+            try {
+                return target.invokeExact(obj, args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    private static final class MethodHandleConstructorAccessor
+        implements ConstructorAccessor
+    {
+        private final Class<?>[] ptypes;
+        // (Object[])Object
+        private final MethodHandle target;
+
+        MethodHandleConstructorAccessor(Class<?>[] ptypes, MethodHandle target) {
+            this.ptypes = ptypes;
+            this.target = target;
+        }
+
+        public Object newInstance(Object[] args)
+            throws InstantiationException,
+                   IllegalArgumentException,
+                   InvocationTargetException
+        {
+            args = checkArguments(ptypes, args);
+            try {
+                return target.invokeExact(args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+}
@@ -3167,6 +3167,11 @@ public final class DateTimeFormatterBuilder {
         private static final long SECONDS_PER_10000_YEARS = 146097L * 25L * 86400L;
         private static final long SECONDS_0000_TO_1970 = ((146097L * 5L) - (30L * 365L + 7L)) * 86400L;
         private final int fractionalDigits;
+        /**
+         * The text up to and including the seconds of the last formatted
+         * instant in the current era, reused while formatting the same second.
+         */
+        private volatile SecondText lastSecond;
 
         InstantPrinterParser(int fractionalDigits) {
             this.fractionalDigits = fractionalDigits;
@@ -3188,16 +3193,23 @@ public final class DateTimeFormatterBuilder {
             // format mostly using LocalDateTime.toString
             if (inSec >= -SECONDS_0000_TO_1970) {
                 // current era
-                long zeroSecs = inSec - SECONDS_PER_10000_YEARS + SECONDS_0000_TO_1970;
-                long hi = Math.floorDiv(zeroSecs, SECONDS_PER_10000_YEARS) + 1;
-                long lo = Math.floorMod(zeroSecs, SECONDS_PER_10000_YEARS);
-                LocalDateTime ldt = LocalDateTime.ofEpochSecond(lo - SECONDS_0000_TO_1970, 0, ZoneOffset.UTC);
-                if (hi > 0) {
-                    buf.append('+').append(hi);
-                }
-                buf.append(ldt);
-                if (ldt.getSecond() == 0) {
-                    buf.append(":00");
+                SecondText last = lastSecond;
+                if (last != null && last.epochSecond == inSec) {
+                    buf.append(last.text);
+                } else {
+                    int pos = buf.length();
+                    long zeroSecs = inSec - SECONDS_PER_10000_YEARS + SECONDS_0000_TO_1970;
+                    long hi = Math.floorDiv(zeroSecs, SECONDS_PER_10000_YEARS) + 1;
+                    long lo = Math.floorMod(zeroSecs, SECONDS_PER_10000_YEARS);
+                    LocalDateTime ldt = LocalDateTime.ofEpochSecond(lo - SECONDS_0000_TO_1970, 0, ZoneOffset.UTC);
+                    if (hi > 0) {
+                        buf.append('+').append(hi);
+                    }
+                    buf.append(ldt);
+                    if (ldt.getSecond() == 0) {
+                        buf.append(":00");
+                    }
+                    lastSecond = new SecondText(inSec, buf.substring(pos));
                 }
             } else {
                 // before current era
@@ -3292,6 +3304,19 @@ public final class DateTimeFormatterBuilder {
         public String toString() {
             return "Instant()";
         }
+
+        /**
+         * Immutable pairing of an epoch-second with its formatted text.
+         */
+        private static final class SecondText {
+            private final long epochSecond;
+            private final String text;
+
+            SecondText(long epochSecond, String text) {
+                this.epochSecond = epochSecond;
+                this.text = text;
+            }
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -47,6 +47,7 @@ import java.text.DateFormatSymbols;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -2539,11 +2540,39 @@ public final class Formatter implements Closeable, Flushable {
 
     private static Pattern fsPattern = Pattern.compile(formatSpecifier);
 
+    /*
+     * Layouts of recently parsed format strings.  A layout holds one element
+     * per format string element: the text of a fixed string, or the matched
+     * groups of a format specifier.  Only format strings that parsed without
+     * error are recorded, so a cache hit rebuilds exactly the elements the
+     * regular expression scan would have produced, without running it.
+     * The cache is bounded; when it is full it is cleared, so that the
+     * format strings currently in use are recorded again.
+     */
+    private static final int PARSE_CACHE_MAX_ENTRIES = 512;
+    private static final int PARSE_CACHE_MAX_LENGTH = 256;
+    private static final ConcurrentHashMap<String, Object[]> parseCache
+        = new ConcurrentHashMap<>();
+
     /**
      * Finds format specifiers in the format string.
      */
     private FormatString[] parse(String s) {
+        Object[] layout = parseCache.get(s);
+        if (layout != null) {
+            FormatString[] fsa = new FormatString[layout.length];
+            for (int i = 0; i < layout.length; i++) {
+                Object o = layout[i];
+                if (o instanceof String)
+                    fsa[i] = new FixedString((String) o);
+                else
+                    fsa[i] = new FormatSpecifier((String[]) o);
+            }
+            return fsa;
+        }
+
         ArrayList<FormatString> al = new ArrayList<>();
+        ArrayList<Object> ll = new ArrayList<>();
         Matcher m = fsPattern.matcher(s);
         for (int i = 0, len = s.length(); i < len; ) {
             if (m.find(i)) {
@@ -2554,23 +2583,45 @@ public final class Formatter implements Closeable, Flushable {
                     // Make sure we didn't miss any invalid format specifiers
                     checkText(s, i, m.start());
                     // Assume previous characters were fixed text
-                    al.add(new FixedString(s.substring(i, m.start())));
+                    String text = s.substring(i, m.start());
+                    al.add(new FixedString(text));
+                    ll.add(text);
                 }
 
-                al.add(new FormatSpecifier(m));
+                String[] groups = groups(m);
+                al.add(new FormatSpecifier(groups));
+                ll.add(groups);
                 i = m.end();
             } else {
                 // No more valid format specifiers.  Check for possible invalid
                 // format specifiers.
                 checkText(s, i, len);
                 // The rest of the string is fixed text
-                al.add(new FixedString(s.substring(i)));
+                String text = s.substring(i);
+                al.add(new FixedString(text));
+                ll.add(text);
                 break;
             }
         }
+        if (s.length() <= PARSE_CACHE_MAX_LENGTH) {
+            if (parseCache.size() >= PARSE_CACHE_MAX_ENTRIES)
+                parseCache.clear();
+            parseCache.putIfAbsent(s, ll.toArray());
+        }
         return al.toArray(new FormatString[al.size()]);
     }
 
+    /**
+     * Returns the argument index, flags, width, precision, date/time prefix
+     * and conversion groups of the format specifier matched by {@code m}.
+     */
+    private static String[] groups(Matcher m) {
+        String[] groups = new String[m.groupCount()];
+        for (int i = 0; i < groups.length; i++)
+            groups[i] = m.group(i + 1);
+        return groups;
+    }
+
     private static void checkText(String s, int start, int end) {
         for (int i = start; i < end; i++) {
             // Any '%' found in the region starts an invalid format specifier.
@@ -2702,22 +2753,22 @@ public final class Formatter implements Closeable, Flushable {
             return c;
         }
 
-        FormatSpecifier(Matcher m) {
-            int idx = 1;
+        FormatSpecifier(String[] groups) {
+            int idx = 0;
 
-            index(m.group(idx++));
-            flags(m.group(idx++));
-            width(m.group(idx++));
-            precision(m.group(idx++));
+            index(groups[idx++]);
+            flags(groups[idx++]);
+            width(groups[idx++]);
+            precision(groups[idx++]);
 
-            String tT = m.group(idx++);
+            String tT = groups[idx++];
             if (tT != null) {
                 dt = true;
                 if (tT.equals("T"))
                     f.add(Flags.UPPERCASE);
             }
 
-            conversion(m.group(idx));
+            conversion(groups[idx]);
 
             if (dt)
                 checkDateTime();
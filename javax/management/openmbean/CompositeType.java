@@ -330,6 +330,10 @@ public class CompositeType extends OpenType<CompositeData> {
      */
     @Override
     boolean isAssignableFrom(OpenType<?> ot) {
+        // Values built by the MXBean mappings carry the very type
+        // instance they are checked against; skip the deep comparison.
+        if (ot == this)
+            return true;
         if (!(ot instanceof CompositeType))
             return false;
         CompositeType ct = (CompositeType) ot;
@@ -238,6 +238,8 @@ public class TabularType extends OpenType<TabularData> {
 
     @Override
     boolean isAssignableFrom(OpenType<?> ot) {
+        if (ot == this)
+            return true;
         if (!(ot instanceof TabularType))
             return false;
         TabularType tt = (TabularType) ot;
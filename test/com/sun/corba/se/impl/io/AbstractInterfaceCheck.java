@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary ObjectStreamClassCorbaExt.isAbstractInterface classifies
+ *          classes as before, on every call
+ * @run main/othervm AbstractInterfaceCheck
+ */
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+public class AbstractInterfaceCheck {
+
+    interface Empty { }
+
+    interface ThrowsRemote {
+        void a() throws RemoteException;
+        int b(String s) throws RemoteException, IllegalStateException;
+    }
+
+    interface ThrowsSupertypes {
+        void a() throws IOException;
+        void b() throws Exception;
+        void c() throws Throwable;
+    }
+
+    interface OneMethodWithout extends ThrowsRemote {
+        void c();
+    }
+
+    interface ThrowsSubtype {
+        void a() throws java.rmi.ConnectException;
+    }
+
+    interface ThrowsUnrelated {
+        void a() throws InterruptedException;
+    }
+
+    interface IsRemote extends Remote {
+        void a() throws RemoteException;
+    }
+
+    interface InheritsRemote extends IsRemote { }
+
+    interface InheritsAbstract extends ThrowsRemote, Empty { }
+
+    static class NotAnInterface implements ThrowsRemote {
+        public void a() { }
+        public int b(String s) { return 0; }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Class<?> ext = Class.forName(
+            "com.sun.corba.se.impl.io.ObjectStreamClassCorbaExt");
+        Method isAbstractInterface =
+            ext.getDeclaredMethod("isAbstractInterface", Class.class);
+        isAbstractInterface.setAccessible(true);
+
+        Object[][] cases = {
+            { Empty.class, true },
+            { ThrowsRemote.class, true },
+            { ThrowsSupertypes.class, true },
+            { InheritsAbstract.class, true },
+            { Serializable.class, true },
+            { OneMethodWithout.class, false },
+            { ThrowsSubtype.class, false },
+            { ThrowsUnrelated.class, false },
+            { IsRemote.class, false },
+            { InheritsRemote.class, false },
+            { Remote.class, false },
+            { Runnable.class, false },
+            { NotAnInterface.class, false },
+            { Object.class, false },
+            { int.class, false },
+            { Empty[].class, false },
+        };
+        // Check each class several times, interleaved, so that results
+        // computed earlier are used for later calls.
+        for (int round = 0; round < 3; round++) {
+            for (Object[] c : cases) {
+                Class<?> cl = (Class<?>) c[0];
+                Object actual = isAbstractInterface.invoke(null, cl);
+                if (!c[1].equals(actual)) {
+                    throw new Exception("isAbstractInterface(" +
+                                        cl.getName() + ") returned " +
+                                        actual + " in round " + round);
+                }
+            }
+        }
+        System.out.println("Test passed");
+    }
+}
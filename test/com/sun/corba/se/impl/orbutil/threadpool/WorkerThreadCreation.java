@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary The ORB thread pool creates one worker per queued work item
+ *          when all workers are busy, and keeps its thread counts
+ *          consistent when creating a worker fails
+ * @run main/othervm WorkerThreadCreation
+ */
+
+import com.sun.corba.se.impl.orbutil.threadpool.ThreadPoolImpl;
+import com.sun.corba.se.spi.orbutil.threadpool.Work;
+import com.sun.corba.se.spi.orbutil.threadpool.WorkQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class WorkerThreadCreation {
+
+    private static final int SUBMITTERS = 8;
+    private static final int ITEMS = 25;
+
+    /** Blocks until released. */
+    static class BlockingWork implements Work {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+        private long enqueueTime;
+
+        BlockingWork(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        public void doWork() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void setEnqueueTime(long timeInMillis) {
+            enqueueTime = timeInMillis;
+        }
+
+        public long getEnqueueTime() {
+            return enqueueTime;
+        }
+
+        public String getName() {
+            return "BlockingWork";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        testGrowth();
+        testCreationFailure();
+        System.out.println("Test passed");
+    }
+
+    /**
+     * Work items added concurrently while every worker is busy must each
+     * get a new worker.
+     */
+    private static void testGrowth() throws Exception {
+        final ThreadPoolImpl pool = new ThreadPoolImpl("WorkerThreadCreation");
+        final WorkQueue queue = pool.getAnyWorkQueue();
+        final int total = SUBMITTERS * ITEMS;
+        final CountDownLatch started = new CountDownLatch(total);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Thread[] submitters = new Thread[SUBMITTERS];
+        for (int s = 0; s < SUBMITTERS; s++) {
+            submitters[s] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < ITEMS; i++) {
+                        queue.addWork(new BlockingWork(started, release));
+                    }
+                }
+            });
+            submitters[s].start();
+        }
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        if (!started.await(60, TimeUnit.SECONDS)) {
+            throw new Exception(started.getCount() + " of " + total +
+                                " work items never started; " +
+                                pool.currentNumberOfThreads() + " threads");
+        }
+        check("busy threads", total, pool.numberOfBusyThreads());
+        check("available threads", 0, pool.numberOfAvailableThreads());
+        check("current threads", total, pool.currentNumberOfThreads());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 60000;
+        while (pool.currentProcessedCount() < total ||
+               pool.numberOfBusyThreads() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new Exception("Work not completed: processed " +
+                                    pool.currentProcessedCount() +
+                                    ", busy " + pool.numberOfBusyThreads());
+            }
+            Thread.sleep(10);
+        }
+        check("idle threads", pool.currentNumberOfThreads(),
+              pool.numberOfAvailableThreads());
+        pool.close();
+    }
+
+    /**
+     * A worker that cannot be created must not be counted.
+     */
+    private static void testCreationFailure() throws Exception {
+        ThreadGroup group = new ThreadGroup("destroyed");
+        group.destroy();
+        ThreadPoolImpl pool = new ThreadPoolImpl(group, "CreationFailure");
+        CountDownLatch started = new CountDownLatch(1);
+        pool.getAnyWorkQueue().addWork(
+            new BlockingWork(started, new CountDownLatch(0)));
+        check("current threads", 0, pool.currentNumberOfThreads());
+        check("busy threads", 0, pool.numberOfBusyThreads());
+        pool.close();
+    }
+
+    private static void check(String what, long expected, long actual)
+            throws Exception {
+        if (expected != actual) {
+            throw new Exception(what + ": expected " + expected + ", got " +
+                                actual);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Many threads sharing one connection each receive the reply
+ *          to their own request when replies arrive out of order
+ * @run main/othervm/timeout=300 ConcurrentRequests
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.omg.CORBA.ARG_IN;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.NVList;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Request;
+import org.omg.CORBA.ServerRequest;
+import org.omg.CORBA.TCKind;
+import org.omg.PortableServer.DynamicImplementation;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+
+public class ConcurrentRequests {
+
+    private static final int THREADS = 16;
+    private static final int CALLS = 200;
+
+    /**
+     * Returns twice its argument. Replies are delayed by a varying amount
+     * so that they come back in a different order than the requests.
+     */
+    static class Echo extends DynamicImplementation {
+        private final ORB orb;
+
+        Echo(ORB orb) {
+            this.orb = orb;
+        }
+
+        public void invoke(ServerRequest request) {
+            NVList args = orb.create_list(1);
+            Any arg = orb.create_any();
+            arg.type(orb.get_primitive_tc(TCKind.tk_long));
+            args.add_value("x", arg, ARG_IN.value);
+            request.arguments(args);
+            int x = arg.extract_long();
+            try {
+                Thread.sleep(x % 3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Any result = orb.create_any();
+            result.insert_long(2 * x);
+            request.set_result(result);
+        }
+
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[] { "IDL:ConcurrentRequests/Echo:1.0" };
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ORB server = ORB.init(new String[0], new Properties());
+        POA rootPOA = POAHelper.narrow(
+            server.resolve_initial_references("RootPOA"));
+        rootPOA.the_POAManager().activate();
+        String ior = server.object_to_string(
+            rootPOA.servant_to_reference(new Echo(server)));
+        Thread serverThread = new Thread(new Runnable() {
+            public void run() {
+                server.run();
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        // A separate ORB, so that requests go over a real connection,
+        // which all client threads share.
+        final ORB client = ORB.init(new String[0], new Properties());
+        final org.omg.CORBA.Object echo = client.string_to_object(ior);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int base = t * CALLS;
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        for (int i = 0; i < CALLS; i++) {
+                            int x = base + i;
+                            Request request = echo._request("echo");
+                            request.add_in_arg().insert_long(x);
+                            request.set_return_type(
+                                client.get_primitive_tc(TCKind.tk_long));
+                            request.invoke();
+                            if (request.env().exception() != null) {
+                                throw request.env().exception();
+                            }
+                            int y = request.return_value().extract_long();
+                            if (y != 2 * x) {
+                                throw new Exception("echo(" + x +
+                                                    ") returned " + y);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get(240, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+            client.shutdown(true);
+            client.destroy();
+            server.shutdown(false);
+        }
+        System.out.println("Test passed");
+    }
+}
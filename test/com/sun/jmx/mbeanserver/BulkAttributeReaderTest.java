@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary BulkAttributeReader returns the attributes of all matching
+ *          MBeans in one request, locally and through an RMI connector,
+ *          and reads through the MBeanServerForwarder it is given
+ * @run main/othervm BulkAttributeReaderTest
+ */
+
+import com.sun.jmx.mbeanserver.BulkAttributeReader;
+import com.sun.jmx.remote.security.MBeanServerFileAccessController;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.QueryExp;
+import javax.management.RuntimeMBeanException;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXPrincipal;
+import javax.management.remote.JMXServiceURL;
+import javax.management.remote.MBeanServerForwarder;
+import javax.security.auth.Subject;
+
+public class BulkAttributeReaderTest {
+
+    public interface CounterMBean {
+        int getCount();
+        String getLabel();
+    }
+
+    public static class Counter implements CounterMBean {
+        final int count;
+        Counter(int count) { this.count = count; }
+        public int getCount() { return count; }
+        public String getLabel() { return "counter" + count; }
+    }
+
+    public static class Range {
+        final int low, high;
+        public Range(int low, int high) { this.low = low; this.high = high; }
+        public int getLow() { return low; }
+        public int getHigh() { return high; }
+    }
+
+    public interface GaugeMXBean {
+        int getCount();
+        Range getRange();
+    }
+
+    public static class Gauge implements GaugeMXBean {
+        final int count;
+        Gauge(int count) { this.count = count; }
+        public int getCount() { return count; }
+        public Range getRange() { return new Range(-count, count); }
+    }
+
+    static final String[] ATTRIBUTES = { "Count", "Label", "Range", "Missing" };
+
+    public static void main(String... args) throws Exception {
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        for (int i = 0; i < 50; i++) {
+            mbs.registerMBean(new Counter(i),
+                new ObjectName("test:type=Counter,id=" + i));
+            mbs.registerMBean(new Gauge(i),
+                new ObjectName("test:type=Gauge,id=" + i));
+        }
+        mbs.registerMBean(new Counter(-1), new ObjectName("other:type=Counter"));
+        ObjectName reader = new ObjectName("com.sun.jmx:type=BulkAttributeReader");
+        mbs.registerMBean(new BulkAttributeReader(), reader);
+
+        check(mbs, mbs, reader, new ObjectName("test:*"));
+        check(mbs, mbs, reader, new ObjectName("test:type=Gauge,*"));
+        check(mbs, mbs, reader, new ObjectName("*:type=Counter,*"));
+        check(mbs, mbs, reader, new ObjectName("none:*"));
+        check(mbs, mbs, reader, null);
+
+        JMXConnectorServer server = JMXConnectorServerFactory.newJMXConnectorServer(
+            new JMXServiceURL("service:jmx:rmi://"), null, mbs);
+        server.start();
+        try {
+            JMXConnector client = JMXConnectorFactory.connect(server.getAddress());
+            try {
+                MBeanServerConnection conn = client.getMBeanServerConnection();
+                check(mbs, conn, reader, new ObjectName("test:*"));
+                check(mbs, conn, reader, new ObjectName("*:type=Counter,*"));
+            } finally {
+                client.close();
+            }
+        } finally {
+            server.stop();
+        }
+
+        // Unregistered MBeans are no longer read
+        mbs.unregisterMBean(new ObjectName("test:type=Gauge,id=7"));
+        check(mbs, mbs, reader, new ObjectName("test:type=Gauge,*"));
+
+        testForwarder(mbs, reader);
+        testAccessFile(mbs);
+    }
+
+    /**
+     * A forwarder that hides the MBeans with id=3 from queries, drops the
+     * Label attribute from reads, and denies reads of other:type=Counter.
+     */
+    static class Filter implements InvocationHandler {
+        MBeanServer mbs;
+
+        public Object invoke(Object proxy, Method m, Object[] args)
+            throws Throwable
+        {
+            String name = m.getName();
+            if (name.equals("getMBeanServer")) {
+                return mbs;
+            } else if (name.equals("setMBeanServer")) {
+                mbs = (MBeanServer) args[0];
+                return null;
+            } else if (name.equals("queryNames")) {
+                Set<ObjectName> names = mbs.queryNames((ObjectName) args[0],
+                                                       (QueryExp) args[1]);
+                Set<ObjectName> visible = new HashSet<>();
+                for (ObjectName n : names) {
+                    if (!"3".equals(n.getKeyProperty("id"))) {
+                        visible.add(n);
+                    }
+                }
+                return visible;
+            } else if (name.equals("getAttributes")) {
+                ObjectName n = (ObjectName) args[0];
+                if (n.getDomain().equals("other")) {
+                    throw new SecurityException("denied " + n);
+                }
+                List<String> allowed = new ArrayList<>();
+                for (String a : (String[]) args[1]) {
+                    if (!a.equals("Label")) {
+                        allowed.add(a);
+                    }
+                }
+                return mbs.getAttributes(n, allowed.toArray(new String[0]));
+            }
+            try {
+                return m.invoke(mbs, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    static void testForwarder(MBeanServer mbs, ObjectName rawReader)
+        throws Exception
+    {
+        Filter filter = new Filter();
+        MBeanServerForwarder outer = (MBeanServerForwarder) Proxy.newProxyInstance(
+            MBeanServerForwarder.class.getClassLoader(),
+            new Class<?>[] { MBeanServerForwarder.class }, filter);
+        outer.setMBeanServer(mbs);
+        ObjectName reader = new ObjectName("com.sun.jmx:type=BulkAttributeReader,outer=true");
+        outer.registerMBean(new BulkAttributeReader(outer), reader);
+
+        // The query and every read go through the forwarder
+        Map<ObjectName, AttributeList> bulk = read(outer, reader, "test:*");
+        if (bulk.isEmpty() || !bulk.keySet().equals(outer.queryNames(
+                new ObjectName("test:*"), null))) {
+            throw new RuntimeException("forwarder query not applied: " +
+                                       bulk.keySet());
+        }
+        for (Map.Entry<ObjectName, AttributeList> e : bulk.entrySet()) {
+            AttributeList expected = outer.getAttributes(e.getKey(), ATTRIBUTES);
+            if (!sameAttributes(e.getValue(), expected)) {
+                throw new RuntimeException(e.getKey() + ": read " + e.getValue() +
+                                           ", expected " + expected);
+            }
+            for (Attribute a : e.getValue().asList()) {
+                if (a.getName().equals("Label")) {
+                    throw new RuntimeException("forwarder read not applied");
+                }
+            }
+        }
+
+        // A denied read fails the operation
+        try {
+            read(outer, reader, "other:*");
+            throw new RuntimeException("denied read returned");
+        } catch (RuntimeMBeanException e) {
+            if (!(e.getCause() instanceof SecurityException)) {
+                throw e;
+            }
+        }
+
+        // The reader registered without a server bypasses the forwarder
+        bulk = read(outer, rawReader, "test:type=Counter,*");
+        if (!bulk.containsKey(new ObjectName("test:type=Counter,id=3"))) {
+            throw new RuntimeException("inner server not read: " + bulk.keySet());
+        }
+        outer.unregisterMBean(reader);
+    }
+
+    static void testAccessFile(MBeanServer mbs) throws Exception {
+        Properties access = new Properties();
+        access.setProperty("ro", "readonly");
+        access.setProperty("rw", "readwrite");
+        final MBeanServerFileAccessController outer =
+            new MBeanServerFileAccessController(access);
+        outer.setMBeanServer(mbs);
+        final ObjectName reader =
+            new ObjectName("com.sun.jmx:type=BulkAttributeReader,access=file");
+        mbs.registerMBean(new BulkAttributeReader(outer), reader);
+
+        // A readwrite client may invoke the reader, and its reads are
+        // checked by the access controller as well
+        Map<ObjectName, AttributeList> bulk = as("rw", outer, reader);
+        if (!bulk.keySet().equals(mbs.queryNames(new ObjectName("test:*"), null))) {
+            throw new RuntimeException("readwrite read " + bulk.keySet());
+        }
+
+        // A readonly client cannot invoke it, but can still read directly
+        try {
+            as("ro", outer, reader);
+            throw new RuntimeException("readonly client invoked the reader");
+        } catch (SecurityException e) {
+            // expected
+        }
+        Subject.doAs(subject("ro"), new PrivilegedExceptionAction<Object>() {
+            public Object run() throws Exception {
+                return outer.getAttributes(
+                    new ObjectName("test:type=Counter,id=1"), ATTRIBUTES);
+            }
+        });
+        mbs.unregisterMBean(reader);
+    }
+
+    static Subject subject(String name) {
+        Subject subject = new Subject();
+        subject.getPrincipals().add(new JMXPrincipal(name));
+        return subject;
+    }
+
+    static Map<ObjectName, AttributeList> as(String name,
+                                             final MBeanServer outer,
+                                             final ObjectName reader)
+        throws Exception
+    {
+        try {
+            return Subject.doAs(subject(name),
+                new PrivilegedExceptionAction<Map<ObjectName, AttributeList>>() {
+                    public Map<ObjectName, AttributeList> run() throws Exception {
+                        return read(outer, reader, "test:*");
+                    }
+                });
+        } catch (PrivilegedActionException e) {
+            throw e.getException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<ObjectName, AttributeList> read(MBeanServerConnection conn,
+                                               ObjectName reader, String pattern)
+        throws Exception
+    {
+        return (Map<ObjectName, AttributeList>) conn.invoke(reader, "getAttributes",
+            new Object[] { new ObjectName(pattern), ATTRIBUTES },
+            new String[] { ObjectName.class.getName(),
+                           String[].class.getName() });
+    }
+
+    @SuppressWarnings("unchecked")
+    static void check(MBeanServer mbs, MBeanServerConnection conn,
+                      ObjectName reader, ObjectName pattern)
+        throws Exception
+    {
+        Map<ObjectName, AttributeList> bulk =
+            (Map<ObjectName, AttributeList>) conn.invoke(reader, "getAttributes",
+                new Object[] { pattern, ATTRIBUTES },
+                new String[] { ObjectName.class.getName(),
+                               String[].class.getName() });
+
+        if (!bulk.keySet().equals(mbs.queryNames(pattern, null))) {
+            throw new RuntimeException(pattern + ": read " + bulk.keySet() +
+                                       ", expected " + mbs.queryNames(pattern, null));
+        }
+        for (Map.Entry<ObjectName, AttributeList> e : bulk.entrySet()) {
+            AttributeList expected = mbs.getAttributes(e.getKey(), ATTRIBUTES);
+            if (!sameAttributes(e.getValue(), expected)) {
+                throw new RuntimeException(e.getKey() + ": read " + e.getValue() +
+                                           ", expected " + expected);
+            }
+        }
+    }
+
+    static boolean sameAttributes(AttributeList actual, AttributeList expected) {
+        if (actual.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            Attribute a = (Attribute) actual.get(i);
+            Attribute b = (Attribute) expected.get(i);
+            if (!a.getName().equals(b.getName())) {
+                return false;
+            }
+            Object av = a.getValue(), bv = b.getValue();
+            if (av instanceof CompositeData) {
+                // MXBean values are open data, compared by content
+                if (!av.equals(bv) ||
+                    !new HashSet<>(((CompositeData) av).getCompositeType().keySet())
+                        .equals(new HashSet<>(Arrays.asList("low", "high")))) {
+                    return false;
+                }
+            } else if (av == null ? bv != null : !av.equals(bv)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
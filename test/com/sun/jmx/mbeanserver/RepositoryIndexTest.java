@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Name pattern queries answered through the key property index
+ *          of the MBean repository return the same names as matching
+ *          every registered MBean, across registrations and
+ *          unregistrations
+ * @run main/othervm RepositoryIndexTest
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+public class RepositoryIndexTest {
+
+    public interface DummyMBean {
+        int getValue();
+    }
+
+    public static class Dummy implements DummyMBean {
+        public int getValue() { return 0; }
+    }
+
+    private static final String[] DOMAINS = { "d1", "d2", "DefaultDomain" };
+    private static final String[] KEYS = { "type", "name", "k" };
+    private static final String[] VALUES = { "a", "b", "c", "\"q\\*\"" };
+
+    private static final String[] PATTERNS = {
+        "*:*",
+        "d1:*",
+        "d*:type=a,*",
+        "*:type=a,name=b,*",
+        "d2:type=a,name=b",
+        "d1:type=?,*",
+        "d1:type=a*,name=b,*",
+        "*:k=\"q*\",*",
+        "*:k=\"q\\*\",*",
+        ":type=c,*",
+        "d1:nokey=x,*",
+        "d?:type=b,k=*,*",
+        "DefaultDomain:type=a,*",
+        "d1:type=a,id=7",
+    };
+
+    public static void main(String[] args) throws Exception {
+        final MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        final Random random = new Random(48L);
+        final List<ObjectName> names = new ArrayList<ObjectName>();
+
+        for (int i = 0; i < 2000; i++) {
+            final ObjectName name = randomName(random, i);
+            mbs.registerMBean(new Dummy(), name);
+            names.add(name);
+        }
+        check(mbs, "after registration");
+
+        for (int i = 0; i < 1500; i++) {
+            final ObjectName name = names.remove(random.nextInt(names.size()));
+            mbs.unregisterMBean(name);
+        }
+        check(mbs, "after unregistration");
+
+        // Empty a domain entirely, then reuse it.
+        for (ObjectName name : mbs.queryNames(new ObjectName("d2:*"), null)) {
+            mbs.unregisterMBean(name);
+            names.remove(name);
+        }
+        check(mbs, "after emptying d2");
+
+        for (int i = 2000; i < 2500; i++) {
+            final ObjectName name = randomName(random, i);
+            mbs.registerMBean(new Dummy(), name);
+            names.add(name);
+        }
+        check(mbs, "after re-registration");
+
+        System.out.println("Test passed");
+    }
+
+    private static ObjectName randomName(Random random, int id)
+            throws Exception {
+        final StringBuilder sb =
+            new StringBuilder(DOMAINS[random.nextInt(DOMAINS.length)]);
+        sb.append(':');
+        final List<String> keys = new ArrayList<String>(Arrays.asList(KEYS));
+        Collections.shuffle(keys, random);
+        final int n = random.nextInt(KEYS.length + 1);
+        for (int j = 0; j < n; j++) {
+            sb.append(keys.get(j)).append('=')
+              .append(VALUES[random.nextInt(VALUES.length)]).append(',');
+        }
+        sb.append("id=").append(id);
+        return new ObjectName(sb.toString());
+    }
+
+    private static void check(MBeanServer mbs, String when) throws Exception {
+        final Set<ObjectName> all = mbs.queryNames(null, null);
+        for (String p : PATTERNS) {
+            final ObjectName pattern = new ObjectName(p);
+            // The repository resolves an empty domain to the default domain.
+            final ObjectName matcher = (pattern.getDomain().length() == 0)
+                ? new ObjectName(mbs.getDefaultDomain() + p)
+                : pattern;
+            final Set<ObjectName> expected = new HashSet<ObjectName>();
+            for (ObjectName name : all) {
+                if (matcher.apply(name)) expected.add(name);
+            }
+            final Set<ObjectName> actual = mbs.queryNames(pattern, null);
+            if (!actual.equals(expected)) {
+                throw new Exception("Query " + p + " " + when + " returned " +
+                                    actual.size() + " names, expected " +
+                                    expected.size());
+            }
+            System.out.println(p + " " + when + ": " + actual.size());
+        }
+    }
+}
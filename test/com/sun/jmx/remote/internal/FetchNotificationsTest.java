@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary ArrayNotificationBuffer.fetchNotifications returns the matching
+ *          notifications in order, honours maxNotifications, timeouts and
+ *          lost notifications, and loses nothing while notifications are
+ *          emitted concurrently
+ * @run main/othervm FetchNotificationsTest
+ */
+
+import com.sun.jmx.remote.internal.ArrayNotificationBuffer;
+import com.sun.jmx.remote.internal.NotificationBuffer;
+import com.sun.jmx.remote.internal.NotificationBufferFilter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.ObjectName;
+import javax.management.remote.NotificationResult;
+import javax.management.remote.TargetedNotification;
+
+public class FetchNotificationsTest {
+
+    public interface EmitterMBean { }
+
+    public static class Emitter extends NotificationBroadcasterSupport
+            implements EmitterMBean {
+        private final ObjectName name;
+        private long sequence;
+
+        Emitter(ObjectName name) {
+            this.name = name;
+        }
+
+        void emit(String type, long value) {
+            Notification n = new Notification(type, name, sequence++);
+            n.setUserData(value);
+            sendNotification(n);
+        }
+    }
+
+    /** Accepts the notifications of one type, or of all types if null. */
+    static class TypeFilter implements NotificationBufferFilter {
+        private final String type;
+
+        TypeFilter(String type) {
+            this.type = type;
+        }
+
+        public void apply(List<TargetedNotification> targetedNotifs,
+                          ObjectName source, Notification notif) {
+            if (type == null || type.equals(notif.getType())) {
+                targetedNotifs.add(new TargetedNotification(notif, 1));
+            }
+        }
+    }
+
+    private static final ObjectName N1 = name("d:type=Emitter,id=1");
+    private static final ObjectName N2 = name("d:type=Emitter,id=2");
+    private static final ObjectName N3 = name("d:type=Emitter,id=3");
+
+    public static void main(String[] args) throws Exception {
+        testFetch();
+        testLost();
+        testWait();
+        testConcurrent();
+        System.out.println("Test passed");
+    }
+
+    /** Filters and maxNotifications over several senders. */
+    private static void testFetch() throws Exception {
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        Emitter e1 = register(mbs, N1);
+        Emitter e2 = register(mbs, N2);
+        Emitter e3 = register(mbs, N3);
+        NotificationBuffer buffer = buffer(mbs, 1000);
+        long base = start(buffer);
+
+        List<Long> even = new ArrayList<Long>();
+        for (long i = 0; i < 100; i++) {
+            String type = (i % 2 == 0) ? "even" : "odd";
+            if (i % 2 == 0) {
+                even.add(i);
+            }
+            e1.emit(type, i);
+            if (i % 10 == 0) {
+                e2.emit("other", i);
+            }
+            if (i % 25 == 0) {
+                e3.emit("third", -i);
+            }
+        }
+        // The delegate's unregistration notification is buffered too.
+        mbs.unregisterMBean(N3);
+        long total = 100 + 10 + 4 + 1;
+
+        NotificationResult all = buffer.fetchNotifications(
+            new TypeFilter("even"), base, 0, 1000);
+        check("earliest", base, all.getEarliestSequenceNumber());
+        check("next", base + total, all.getNextSequenceNumber());
+        check("values", even, values(all));
+
+        // Fetching in steps of seven returns the same notifications,
+        // and stops at the first one that did not fit.
+        List<Long> stepped = new ArrayList<Long>();
+        long next = base;
+        while (next < base + total) {
+            NotificationResult r = buffer.fetchNotifications(
+                new TypeFilter("even"), next, 0, 7);
+            List<Long> v = values(r);
+            if (v.size() > 7) {
+                throw new Exception("More than 7 notifications: " + v);
+            }
+            if (v.isEmpty() && r.getNextSequenceNumber() == next) {
+                break;
+            }
+            stepped.addAll(v);
+            next = r.getNextSequenceNumber();
+        }
+        check("stepped values", even, stepped);
+
+        // With maxNotifications 0 the result points at the first match.
+        NotificationResult none = buffer.fetchNotifications(
+            new TypeFilter("other"), base, 0, 0);
+        check("none", new ArrayList<Long>(), values(none));
+        check("first match", base + 1, none.getNextSequenceNumber());
+        NotificationResult others = buffer.fetchNotifications(
+            new TypeFilter("other"), base + 2, 0, 1);
+        check("second other", (Object) 10L, values(others).get(0));
+
+        buffer.dispose();
+    }
+
+    /** Notifications dropped from a full buffer are reported as lost. */
+    private static void testLost() throws Exception {
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        Emitter e1 = register(mbs, N1);
+        NotificationBuffer buffer = buffer(mbs, 10);
+        long base = start(buffer);
+        for (long i = 0; i < 25; i++) {
+            e1.emit("t", i);
+        }
+        NotificationResult r = buffer.fetchNotifications(
+            new TypeFilter(null), base, 0, 100);
+        check("earliest after loss", base + 15, r.getEarliestSequenceNumber());
+        check("next after loss", base + 25, r.getNextSequenceNumber());
+        List<Long> expected = new ArrayList<Long>();
+        for (long i = 15; i < 25; i++) {
+            expected.add(i);
+        }
+        check("values after loss", expected, values(r));
+        buffer.dispose();
+    }
+
+    /** A fetch waits for a matching notification, up to the timeout. */
+    private static void testWait() throws Exception {
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        final Emitter e1 = register(mbs, N1);
+        NotificationBuffer buffer = buffer(mbs, 100);
+        long base = start(buffer);
+
+        long start = System.currentTimeMillis();
+        NotificationResult r = buffer.fetchNotifications(
+            new TypeFilter(null), base, 200, 10);
+        long elapsed = System.currentTimeMillis() - start;
+        if (elapsed < 150 || !values(r).isEmpty() ||
+            r.getNextSequenceNumber() != base) {
+            throw new Exception("Unexpected timeout result after " +
+                                elapsed + " ms: " + r);
+        }
+
+        Thread emitter = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                e1.emit("skip", 0);
+                e1.emit("wanted", 1);
+            }
+        });
+        emitter.start();
+        r = buffer.fetchNotifications(new TypeFilter("wanted"), base, 60000,
+                                     10);
+        emitter.join();
+        List<Long> expected = new ArrayList<Long>();
+        expected.add(1L);
+        check("waited values", expected, values(r));
+        check("waited next", base + 2, r.getNextSequenceNumber());
+        buffer.dispose();
+    }
+
+    /** Fetchers catching up while an emitter keeps adding. */
+    private static void testConcurrent() throws Exception {
+        MBeanServer mbs = MBeanServerFactory.newMBeanServer();
+        final Emitter e1 = register(mbs, N1);
+        final NotificationBuffer buffer = buffer(mbs, 200000);
+        final long base = start(buffer);
+        final int count = 20000;
+        final String[] types = { null, "even", "odd" };
+        final List<List<Long>> received = new ArrayList<List<Long>>();
+        final List<Throwable> failures = new ArrayList<Throwable>();
+
+        List<Thread> fetchers = new ArrayList<Thread>();
+        for (int f = 0; f < types.length; f++) {
+            final String type = types[f];
+            final List<Long> values = new ArrayList<Long>();
+            final int expectedCount = (type == null) ? count : count / 2;
+            received.add(values);
+            Thread fetcher = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        long next = base;
+                        while (values.size() < expectedCount) {
+                            NotificationResult r = buffer.fetchNotifications(
+                                new TypeFilter(type), next, 60000, 100);
+                            values.addAll(values(r));
+                            next = r.getNextSequenceNumber();
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failures) {
+                            failures.add(t);
+                        }
+                    }
+                }
+            });
+            fetchers.add(fetcher);
+            fetcher.start();
+        }
+        for (long i = 0; i < count; i++) {
+            e1.emit((i % 2 == 0) ? "even" : "odd", i);
+        }
+        for (Thread fetcher : fetchers) {
+            fetcher.join(120000);
+            if (fetcher.isAlive()) {
+                throw new Exception("Fetcher did not finish");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new Exception("Fetcher failed", failures.get(0));
+        }
+        for (int f = 0; f < types.length; f++) {
+            List<Long> expected = new ArrayList<Long>();
+            for (long i = 0; i < count; i++) {
+                if (types[f] == null ||
+                    (i % 2 == 0) == types[f].equals("even")) {
+                    expected.add(i);
+                }
+            }
+            check("concurrent values for " + types[f], expected,
+                  received.get(f));
+        }
+        buffer.dispose();
+    }
+
+    private static NotificationBuffer buffer(MBeanServer mbs, int size) {
+        Map<String, Object> env = new HashMap<String, Object>();
+        env.put("jmx.remote.x.notification.buffer.size", size);
+        return ArrayNotificationBuffer.getNotificationBuffer(mbs, env);
+    }
+
+    /** The sequence number of the first notification added to buffer. */
+    private static long start(NotificationBuffer buffer) throws Exception {
+        return buffer.fetchNotifications(new TypeFilter(null), -1, 0, 0)
+                     .getNextSequenceNumber();
+    }
+
+    private static Emitter register(MBeanServer mbs, ObjectName name)
+            throws Exception {
+        Emitter emitter = new Emitter(name);
+        mbs.registerMBean(emitter, name);
+        return emitter;
+    }
+
+    private static List<Long> values(NotificationResult r) {
+        List<Long> values = new ArrayList<Long>();
+        for (TargetedNotification tn : r.getTargetedNotifications()) {
+            values.add((Long) tn.getNotification().getUserData());
+        }
+        return values;
+    }
+
+    private static ObjectName name(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void check(String what, Object expected, Object actual)
+            throws Exception {
+        if (!expected.equals(actual)) {
+            throw new Exception(what + ": expected " + expected + ", got " +
+                                actual);
+        }
+    }
+
+    private static void check(String what, List<Long> expected,
+                              List<Long> actual) throws Exception {
+        int n = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < n; i++) {
+            if (!expected.get(i).equals(actual.get(i))) {
+                throw new Exception(what + ": at index " + i + " expected " +
+                                    expected.get(i) + ", got " +
+                                    actual.get(i));
+            }
+        }
+        if (expected.size() != actual.size()) {
+            throw new Exception(what + ": expected " + expected.size() +
+                                " values, got " + actual.size());
+        }
+    }
+
+    private static void check(String what, long expected, long actual)
+            throws Exception {
+        if (expected != actual) {
+            throw new Exception(what + ": expected " + expected + ", got " +
+                                actual);
+        }
+    }
+}
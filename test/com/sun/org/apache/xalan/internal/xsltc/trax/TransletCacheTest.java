@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Translets reused through the translet-cache attribute of the
+ *          XSLTC TransformerFactory
+ * @run main/othervm TransletCacheTest
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.transform.ErrorListener;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+public class TransletCacheTest {
+
+    static final String FACTORY =
+        "com.sun.org.apache.xalan.internal.xsltc.trax.TransformerFactoryImpl";
+
+    static final String ENTITY_EXPANSION_LIMIT =
+        "http://www.oracle.com/xml/jaxp/properties/entityExpansionLimit";
+
+    static final String STYLESHEET =
+        "<xsl:stylesheet version='1.0'" +
+        " xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+        "<xsl:template match='/'><r><xsl:value-of select='/a'/></r></xsl:template>" +
+        "</xsl:stylesheet>";
+
+    // Compiles with an unsupported encoding warning
+    static final String WARNING_STYLESHEET =
+        "<xsl:stylesheet version='1.0'" +
+        " xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+        "<xsl:output encoding='no-such-encoding'/>" +
+        "<xsl:template match='/'><r/></xsl:template>" +
+        "</xsl:stylesheet>";
+
+    // Expands the entity e four times while the stylesheet is parsed
+    static final String ENTITY_STYLESHEET =
+        "<!DOCTYPE xsl:stylesheet [<!ENTITY e 'x'>]>" +
+        "<xsl:stylesheet version='1.0'" +
+        " xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+        "<xsl:template match='/'><r>&e;&e;&e;&e;</r></xsl:template>" +
+        "</xsl:stylesheet>";
+
+    public static void main(String... args) throws Exception {
+        testReuse();
+        testWarningsReported();
+        testLimitsInKey();
+        testReadFailure();
+        testSharedAcrossFactories();
+        testSettingsInKeyAcrossFactories();
+        testReaderContentInKey();
+    }
+
+    // Includes inc.xsl, which defines the template for /
+    static final String INCLUDING_STYLESHEET =
+        "<xsl:stylesheet version='1.0'" +
+        " xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+        "<xsl:include href='inc.xsl'/>" +
+        "</xsl:stylesheet>";
+
+    static String includedStylesheet(String value) {
+        return "<xsl:stylesheet version='1.0'" +
+            " xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+            "<xsl:template match='/'><r>" + value + "</r></xsl:template>" +
+            "</xsl:stylesheet>";
+    }
+
+    static TransformerFactory newFactory() {
+        TransformerFactory tf = TransformerFactory.newInstance(FACTORY, null);
+        tf.setAttribute("translet-cache", Boolean.TRUE);
+        return tf;
+    }
+
+    static String transform(Templates templates, String xml) throws Exception {
+        StringWriter out = new StringWriter();
+        templates.newTransformer().transform(
+            new StreamSource(new StringReader(xml)), new StreamResult(out));
+        return out.toString();
+    }
+
+    static void assertEquals(Object actual, Object expected) {
+        if (!expected.equals(actual)) {
+            throw new RuntimeException("expected " + expected + ", got " + actual);
+        }
+    }
+
+    static void testReuse() throws Exception {
+        TransformerFactory tf = newFactory();
+        for (int i = 0; i < 3; i++) {
+            Templates t = tf.newTemplates(new StreamSource(new StringReader(STYLESHEET)));
+            String result = transform(t, "<a>" + i + "</a>");
+            if (!result.endsWith("<r>" + i + "</r>")) {
+                throw new RuntimeException("unexpected result " + result);
+            }
+            // An input stream of the same content is served the same way
+            t = tf.newTemplates(new StreamSource(
+                new ByteArrayInputStream(STYLESHEET.getBytes("UTF-8"))));
+            assertEquals(transform(t, "<a>" + i + "</a>"), result);
+        }
+    }
+
+    static void testWarningsReported() throws Exception {
+        TransformerFactory tf = newFactory();
+        for (int i = 0; i < 2; i++) {
+            final List<TransformerException> warnings = new ArrayList<>();
+            tf.setErrorListener(new ErrorListener() {
+                public void warning(TransformerException e) {
+                    warnings.add(e);
+                }
+                public void error(TransformerException e) {
+                    warnings.add(e);
+                }
+                public void fatalError(TransformerException e)
+                    throws TransformerException
+                {
+                    throw e;
+                }
+            });
+            tf.newTemplates(new StreamSource(new StringReader(WARNING_STYLESHEET)));
+            assertEquals(warnings.size(), 1);
+        }
+    }
+
+    static void testLimitsInKey() throws Exception {
+        TransformerFactory tf = newFactory();
+        tf.newTemplates(new StreamSource(new StringReader(ENTITY_STYLESHEET)));
+
+        // The cached translet must not be returned once the stylesheet
+        // exceeds the limits of the factory
+        tf.setAttribute(ENTITY_EXPANSION_LIMIT, "2");
+        tf.setErrorListener(new ErrorListener() {
+            public void warning(TransformerException e) { }
+            public void error(TransformerException e) { }
+            public void fatalError(TransformerException e) { }
+        });
+        try {
+            tf.newTemplates(new StreamSource(new StringReader(ENTITY_STYLESHEET)));
+            throw new RuntimeException("entity expansion limit not applied");
+        } catch (TransformerConfigurationException e) {
+            // expected
+        }
+    }
+
+    static void testReadFailure() throws Exception {
+        final IOException failure = new IOException("read failure");
+        InputStream in = new InputStream() {
+            int count;
+            public int read() throws IOException {
+                if (count < 10) {
+                    return STYLESHEET.charAt(count++);
+                }
+                throw failure;
+            }
+        };
+        TransformerFactory tf = newFactory();
+        try {
+            tf.newTemplates(new StreamSource(in));
+            throw new RuntimeException("partly read stylesheet compiled");
+        } catch (TransformerConfigurationException e) {
+            if (e.getCause() != failure) {
+                throw new RuntimeException("unexpected cause", e);
+            }
+        }
+    }
+
+    static void write(File file, String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes("UTF-8"));
+        }
+    }
+
+    static void testSharedAcrossFactories() throws Exception {
+        File dir = new File(System.getProperty("test.classes", "."),
+                            "TransletCacheTest");
+        dir.mkdirs();
+        File main = new File(dir, "main.xsl");
+        File inc = new File(dir, "inc.xsl");
+        write(main, INCLUDING_STYLESHEET);
+        write(inc, includedStylesheet("first"));
+        Templates t = newFactory().newTemplates(new StreamSource(main));
+        assertEquals(transform(t, "<a/>").endsWith("<r>first</r>"), true);
+
+        // Included modules are not part of the key, so another factory
+        // is only given the first translet if the cache is shared
+        write(inc, includedStylesheet("second"));
+        t = newFactory().newTemplates(new StreamSource(main));
+        assertEquals(transform(t, "<a/>").endsWith("<r>first</r>"), true);
+
+        // Without the cache the changed module is compiled
+        t = TransformerFactory.newInstance(FACTORY, null)
+            .newTemplates(new StreamSource(main));
+        assertEquals(transform(t, "<a/>").endsWith("<r>second</r>"), true);
+    }
+
+    static void testSettingsInKeyAcrossFactories() throws Exception {
+        newFactory().newTemplates(new StreamSource(
+            new StringReader(ENTITY_STYLESHEET)));
+
+        // A factory with a lower limit must compile the stylesheet itself
+        TransformerFactory tf = newFactory();
+        tf.setAttribute(ENTITY_EXPANSION_LIMIT, "2");
+        tf.setErrorListener(new ErrorListener() {
+            public void warning(TransformerException e) { }
+            public void error(TransformerException e) { }
+            public void fatalError(TransformerException e) { }
+        });
+        try {
+            tf.newTemplates(new StreamSource(new StringReader(ENTITY_STYLESHEET)));
+            throw new RuntimeException("entity expansion limit not applied");
+        } catch (TransformerConfigurationException e) {
+            // expected
+        }
+    }
+
+    static void testReaderContentInKey() throws Exception {
+        // These values differ only in the low or only in the high byte of
+        // one character, and must each get their own translet
+        String[] values = { "\u0100", "\u0101", "\u0200" };
+        TransformerFactory tf = newFactory();
+        for (int i = 0; i < 2; i++) {
+            for (String value : values) {
+                Templates t = tf.newTemplates(new StreamSource(
+                    new StringReader(includedStylesheet(value))));
+                String result = transform(t, "<a/>");
+                if (!result.endsWith("<r>" + value + "</r>")) {
+                    throw new RuntimeException("unexpected result " + result);
+                }
+            }
+        }
+    }
+}
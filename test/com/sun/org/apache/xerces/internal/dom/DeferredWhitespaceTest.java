@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary The deferred DOM reports the same text nodes, values and
+ *          element content whitespace flags as the non-deferred DOM for
+ *          documents with many distinct whitespace-only text values
+ * @run main/othervm DeferredWhitespaceTest
+ */
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.InputSource;
+
+public class DeferredWhitespaceTest {
+
+    private static final String DEFER_NODE_EXPANSION =
+        "http://apache.org/xml/features/dom/defer-node-expansion";
+
+    public static void main(String[] args) throws Exception {
+        String[] documents = {
+            indented(10, "  ", false),
+            indented(300, " ", false),   // more distinct values than shared
+            indented(40, "\t \r\n", true),
+            "<a> <b>x</b> \n <b> &#32;\t</b>&#10;  <b/>  </a>",
+        };
+        for (String document : documents) {
+            List<String> expected = texts(parse(document, false));
+            List<String> actual = texts(parse(document, true));
+            if (!expected.equals(actual)) {
+                throw new Exception("Deferred DOM differs:\n  expected " +
+                                    expected + "\n  actual   " + actual);
+            }
+        }
+
+        // Modifying one shared value must not affect the others.
+        Document doc = parse(indented(5, "  ", false), true);
+        Text first = (Text) doc.getDocumentElement().getFirstChild();
+        String original = first.getData();
+        first.appendData("x");
+        List<String> values = texts(doc);
+        if (!values.get(0).equals("#text [" + original + "x] false") ||
+            values.subList(1, values.size()).contains(
+                "#text [" + original + "x] false")) {
+            throw new Exception("Unexpected values after appendData: " +
+                                values);
+        }
+        System.out.println("Test passed");
+    }
+
+    /**
+     * Returns a document nested to the given depth and indented with
+     * the given unit, optionally with a DTD that makes the whitespace
+     * element content whitespace.
+     */
+    private static String indented(int depth, String unit, boolean dtd) {
+        StringBuilder sb = new StringBuilder();
+        if (dtd) {
+            sb.append("<!DOCTYPE e [<!ELEMENT e (e?,t?)>" +
+                      "<!ELEMENT t (#PCDATA)>]>\n");
+        }
+        StringBuilder indent = new StringBuilder("\n");
+        for (int i = 0; i < depth; i++) {
+            sb.append(indent).append("<e>");
+            indent.append(unit);
+        }
+        sb.append(indent).append("<t>").append(indent).append("</t>");
+        for (int i = depth; i > 0; i--) {
+            indent.setLength(indent.length() - unit.length());
+            sb.append(indent).append("</e>");
+        }
+        return sb.toString();
+    }
+
+    private static Document parse(String document, boolean deferred)
+            throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(DEFER_NODE_EXPANSION, deferred);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        return builder.parse(new InputSource(new StringReader(document)));
+    }
+
+    private static List<String> texts(Document doc) {
+        List<String> texts = new ArrayList<String>();
+        collect(doc.getDocumentElement(), texts);
+        return texts;
+    }
+
+    private static void collect(Node node, List<String> texts) {
+        for (Node child = node.getFirstChild(); child != null;
+             child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.TEXT_NODE) {
+                Text text = (Text) child;
+                texts.add(text.getNodeName() + " [" + text.getData() + "] " +
+                          text.isElementContentWhitespace());
+            } else {
+                collect(child, texts);
+            }
+        }
+    }
+}
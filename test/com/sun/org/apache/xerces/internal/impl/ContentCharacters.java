@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary The XML 1.0 scanner accepts exactly the characters allowed in
+ *          content and attribute values, and reports them unchanged
+ * @run main/othervm ContentCharacters
+ */
+
+import java.io.StringReader;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class ContentCharacters {
+
+    /** Collects the text content and the attribute value of the root. */
+    static class Collector extends DefaultHandler {
+        final StringBuilder text = new StringBuilder();
+        String attribute;
+
+        public void startElement(String uri, String localName, String qName,
+                                 Attributes attributes) {
+            attribute = attributes.getValue("v");
+        }
+
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+    }
+
+    private static SAXParser parser;
+
+    public static void main(String[] args) throws Exception {
+        parser = SAXParserFactory.newInstance().newSAXParser();
+
+        int checked = 0;
+        for (int c = 1; c <= 0xFFFF; c++) {
+            if (c >= 0xD800 && c <= 0xDFFF) {
+                continue;
+            }
+            check(String.valueOf((char) c), isValid(c));
+            checked++;
+        }
+        // a supplementary character and an unpaired surrogate
+        check("\uD83D\uDE00", true);
+        check("\uD83Dx", false);
+
+        // Long runs of printable ASCII that cross the scanner buffer.
+        StringBuilder run = new StringBuilder();
+        for (int i = 0; run.length() < 100_000; i++) {
+            char c = (char) (0x20 + i % 0x5F);
+            if (c != '<' && c != '&' && c != ']' && c != '\'') {
+                run.append(c);
+            }
+        }
+        check(run.toString(), true);
+        checked++;
+
+        // "]]>" is not allowed in content, but is in an attribute value.
+        Collector collector = new Collector();
+        parser.parse(new InputSource(new StringReader(
+            "<r v='a]]>b'>a]]&gt;b</r>")), collector);
+        if (!"a]]>b".equals(collector.attribute) ||
+            !"a]]>b".equals(collector.text.toString())) {
+            throw new Exception("Unexpected values for ]]>");
+        }
+        try {
+            parser.parse(new InputSource(new StringReader(
+                "<r>a]]>b</r>")), new DefaultHandler());
+            throw new Exception("Accepted ]]> in content");
+        } catch (SAXParseException expected) {
+        }
+
+        System.out.println(checked + " characters checked");
+    }
+
+    private static boolean isValid(int c) {
+        return c == 0x9 || c == 0xA || c == 0xD ||
+               (c >= 0x20 && c <= 0xD7FF) ||
+               (c >= 0xE000 && c <= 0xFFFD);
+    }
+
+    private static void check(String s, boolean valid) throws Exception {
+        String escaped = s.replace("&", "&amp;").replace("<", "&lt;")
+                          .replace("'", "&apos;");
+        String value = "ab" + escaped + "cd]" + escaped + "]x";
+        String document = "<?xml version='1.0'?><r v='" + value + "'>" +
+                          value + "</r>";
+        String raw = "ab" + s + "cd]" + s + "]x";
+        String expectedText = raw.replace("\r", "\n");
+        String expectedAttribute = raw.replace('\r', ' ').replace('\n', ' ')
+                                      .replace('\t', ' ');
+
+        Collector collector = new Collector();
+        try {
+            parser.parse(new InputSource(new StringReader(document)),
+                         collector);
+        } catch (SAXParseException e) {
+            if (valid) {
+                throw new Exception("Rejected " + describe(s), e);
+            }
+            return;
+        }
+        if (!valid) {
+            throw new Exception("Accepted " + describe(s));
+        }
+        if (!expectedText.equals(collector.text.toString())) {
+            throw new Exception("Text differs for " + describe(s));
+        }
+        if (!expectedAttribute.equals(collector.attribute)) {
+            throw new Exception("Attribute differs for " + describe(s));
+        }
+    }
+
+    private static String describe(String s) {
+        if (s.length() > 2) {
+            return "a run of " + s.length() + " characters";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            sb.append(String.format("U+%04X ", (int) s.charAt(i)));
+        }
+        return sb.toString().trim();
+    }
+}
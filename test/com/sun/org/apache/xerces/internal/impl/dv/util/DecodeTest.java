@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Base64.decode and HexBin.decode accept exactly the lexical
+ *          forms of base64Binary and hexBinary, white space included,
+ *          and return the encoded bytes
+ * @run main/othervm DecodeTest
+ */
+
+import com.sun.org.apache.xerces.internal.impl.dv.util.Base64;
+import com.sun.org.apache.xerces.internal.impl.dv.util.HexBin;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DecodeTest {
+
+    private static final String ALPHABET =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    /** Characters drawn when corrupting values. */
+    private static final String NOISE =
+        ALPHABET + "==== \t\r\n-_.*\u00E9\u0100\u20AC";
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(43L);
+
+        // Round trips, with white space inserted anywhere.
+        for (int i = 0; i < 20000; i++) {
+            byte[] data = new byte[random.nextInt(64)];
+            random.nextBytes(data);
+            String encoded = Base64.encode(data);
+            checkBase64(encoded, data);
+            checkBase64(insertWhiteSpace(random, encoded), data);
+
+            String hex = HexBin.encode(data);
+            checkHexBin(hex, data);
+            checkHexBin(hex.toLowerCase(), data);
+        }
+
+        // Fixed cases, including pads in the wrong place, non-zero pad
+        // bits and non-ASCII characters before a pad.
+        String[] base64 = {
+            "", " ", "\t\r\n ", "QQ==", "QR==", "QUE=", "QUF=", "QUFB",
+            "Q", "QQ", "QQ=", "QQ===", "=QQQ", "Q=QQ", "QQ=Q", "====",
+            "QUFB====", "QUFBQQ==QUFB", " Q Q = = ", "QUFB\u00E9===",
+            "QU\u00E9=", "Q\u00E9==", "QU\u0100=", "QUFB\u20AC",
+            "QUFB QUFB\nQUFB\tQUFB\rQUFB",
+        };
+        for (String value : base64) {
+            checkBase64(value, referenceBase64(value));
+        }
+        String[] hex = {
+            "", "0", "00", "0g", "g0", "fF", "Ff0", "0 ", " 0", "\u00E90",
+            "0\u0100", "ABCDEF0123456789abcdef",
+        };
+        for (String value : hex) {
+            checkHexBin(value, referenceHexBin(value));
+        }
+
+        // Corrupted values are compared with a reference decoder.
+        for (int i = 0; i < 200000; i++) {
+            String value = corrupt(random, Base64.encode(
+                Arrays.copyOf(new byte[] { 1, 2, 3, 4, 5, 6, 7 },
+                              random.nextInt(8))));
+            checkBase64(value, referenceBase64(value));
+            value = corrupt(random, HexBin.encode(
+                new byte[random.nextInt(4)]));
+            checkHexBin(value, referenceHexBin(value));
+        }
+
+        if (Base64.decode(null) != null || HexBin.decode(null) != null) {
+            throw new Exception("null not decoded to null");
+        }
+        System.out.println("Test passed");
+    }
+
+    private static String insertWhiteSpace(Random random, String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= s.length(); i++) {
+            while (random.nextInt(4) == 0) {
+                sb.append(" \t\r\n".charAt(random.nextInt(4)));
+            }
+            if (i < s.length()) {
+                sb.append(s.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String corrupt(Random random, String s) {
+        StringBuilder sb = new StringBuilder(s);
+        int changes = 1 + random.nextInt(3);
+        for (int i = 0; i < changes; i++) {
+            char c = NOISE.charAt(random.nextInt(NOISE.length()));
+            int at = random.nextInt(sb.length() + 1);
+            switch (random.nextInt(3)) {
+            case 0:
+                sb.insert(at, c);
+                break;
+            case 1:
+                if (at < sb.length()) {
+                    sb.setCharAt(at, c);
+                }
+                break;
+            default:
+                if (at < sb.length()) {
+                    sb.deleteCharAt(at);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decodes base64Binary following the lexical rules of XML Schema, or
+     * returns null if the value is not valid.
+     */
+    private static byte[] referenceBase64(String value) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                sb.append(c);
+            }
+        }
+        String s = sb.toString();
+        if (s.length() % 4 != 0) {
+            return null;
+        }
+        int pads = s.endsWith("==") ? 2 : s.endsWith("=") ? 1 : 0;
+        int dataChars = s.length() - pads;
+        if (dataChars % 4 == 1 || (pads > 0 && dataChars % 4 == 0)) {
+            return null;
+        }
+        long bits = 0;
+        int bitCount = 0;
+        byte[] out = new byte[dataChars * 6 / 8];
+        int n = 0;
+        for (int i = 0; i < dataChars; i++) {
+            int v = ALPHABET.indexOf(s.charAt(i));
+            if (v < 0) {
+                return null;
+            }
+            bits = (bits << 6) | v;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[n++] = (byte) (bits >> bitCount);
+            }
+        }
+        // the bits after the last byte must be zero
+        if ((bits & ((1 << bitCount) - 1)) != 0) {
+            return null;
+        }
+        return out;
+    }
+
+    private static byte[] referenceHexBin(String value) {
+        if (value.length() % 2 != 0) {
+            return null;
+        }
+        byte[] out = new byte[value.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            int hi = Character.digit(value.charAt(2 * i), 16);
+            int lo = Character.digit(value.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0 || value.charAt(2 * i) > 0x7F ||
+                value.charAt(2 * i + 1) > 0x7F) {
+                return null;
+            }
+            out[i] = (byte) ((hi << 4) | lo);
+        }
+        return out;
+    }
+
+    private static void checkBase64(String value, byte[] expected)
+            throws Exception {
+        byte[] actual = Base64.decode(value);
+        if (!Arrays.equals(expected, actual)) {
+            throw new Exception("Base64.decode(\"" + escape(value) +
+                                "\") returned " + Arrays.toString(actual) +
+                                ", expected " + Arrays.toString(expected));
+        }
+    }
+
+    private static void checkHexBin(String value, byte[] expected)
+            throws Exception {
+        byte[] actual = HexBin.decode(value);
+        if (!Arrays.equals(expected, actual)) {
+            throw new Exception("HexBin.decode(\"" + escape(value) +
+                                "\") returned " + Arrays.toString(actual) +
+                                ", expected " + Arrays.toString(expected));
+        }
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x7F) {
+                sb.append(c);
+            } else {
+                sb.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Content models with element references accept substitution
+ *          group members, and reject blocked substitutions and elements
+ *          from another namespace
+ * @run main/othervm SubstitutionGroupMatching
+ */
+
+import java.io.StringReader;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import org.xml.sax.SAXException;
+
+public class SubstitutionGroupMatching {
+
+    private static final String SCHEMA =
+        "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'" +
+        "    xmlns:t='urn:t' targetNamespace='urn:t'" +
+        "    elementFormDefault='qualified'>" +
+        "  <xs:complexType name='Base'>" +
+        "    <xs:sequence/>" +
+        "    <xs:attribute name='x' type='xs:string'/>" +
+        "  </xs:complexType>" +
+        "  <xs:complexType name='Derived'>" +
+        "    <xs:complexContent>" +
+        "      <xs:extension base='t:Base'>" +
+        "        <xs:attribute name='y' type='xs:string'/>" +
+        "      </xs:extension>" +
+        "    </xs:complexContent>" +
+        "  </xs:complexType>" +
+        "  <xs:element name='a' type='xs:string'/>" +
+        "  <xs:element name='b' type='xs:string'/>" +
+        "  <xs:element name='c' type='xs:string'/>" +
+        "  <xs:element name='head' type='t:Base'/>" +
+        "  <xs:element name='member' type='t:Base' substitutionGroup='t:head'/>" +
+        "  <xs:element name='derived' type='t:Derived'" +
+        "      substitutionGroup='t:head'/>" +
+        "  <xs:element name='nested' type='t:Base'" +
+        "      substitutionGroup='t:member'/>" +
+        "  <xs:element name='blocked' type='t:Base' block='substitution'/>" +
+        "  <xs:element name='blockedMember' type='t:Base'" +
+        "      substitutionGroup='t:blocked'/>" +
+        "  <xs:element name='noExtension' type='t:Base' block='extension'/>" +
+        "  <xs:element name='extending' type='t:Derived'" +
+        "      substitutionGroup='t:noExtension'/>" +
+        "  <xs:element name='root'>" +
+        "    <xs:complexType>" +
+        "      <xs:sequence>" +
+        "        <xs:choice minOccurs='0' maxOccurs='unbounded'>" +
+        "          <xs:element ref='t:a'/>" +
+        "          <xs:element ref='t:b'/>" +
+        "          <xs:element ref='t:c'/>" +
+        "          <xs:element ref='t:blocked'/>" +
+        "          <xs:element ref='t:noExtension'/>" +
+        "          <xs:element ref='t:head'/>" +
+        "          <xs:element name='local' type='xs:string'/>" +
+        "        </xs:choice>" +
+        "        <xs:element name='end' minOccurs='0'>" +
+        "          <xs:complexType>" +
+        "            <xs:sequence>" +
+        "              <xs:element ref='t:a' minOccurs='0'/>" +
+        "              <xs:element ref='t:head' minOccurs='2' maxOccurs='3'/>" +
+        "            </xs:sequence>" +
+        "          </xs:complexType>" +
+        "        </xs:element>" +
+        "      </xs:sequence>" +
+        "    </xs:complexType>" +
+        "  </xs:element>" +
+        "</xs:schema>";
+
+    public static void main(String[] args) throws Exception {
+        Schema schema = SchemaFactory
+            .newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+            .newSchema(new StreamSource(new StringReader(SCHEMA)));
+        Validator validator = schema.newValidator();
+
+        check(validator, true, "<t:a/><t:b/><t:c/><t:local/>");
+        check(validator, true, "<t:head/><t:member/><t:derived/><t:nested/>");
+        check(validator, true, "<t:blocked/><t:noExtension/><t:a/>");
+        check(validator, true, "<t:c/><t:member/><t:a/><t:nested/><t:local/>");
+        check(validator, false, "<t:blockedMember/>");
+        check(validator, false, "<t:a/><t:extending/>");
+        check(validator, false, "<t:unknown/>");
+        check(validator, false, "<o:a xmlns:o='urn:o'/>");
+        check(validator, false, "<o:member xmlns:o='urn:o'/>");
+        check(validator, false, "<t:root/>");
+
+        check(validator, true, "<t:end><t:a/><t:member/><t:head/></t:end>");
+        check(validator, true,
+              "<t:a/><t:end><t:nested/><t:derived/><t:member/></t:end>");
+        check(validator, false, "<t:end><t:member/></t:end>");
+        check(validator, false,
+              "<t:end><t:member/><t:head/><t:nested/><t:derived/></t:end>");
+        check(validator, false, "<t:end><t:a/><t:a/><t:head/></t:end>");
+        check(validator, false, "<t:end><t:blockedMember/><t:head/></t:end>");
+
+        System.out.println("Test passed");
+    }
+
+    private static void check(Validator validator, boolean valid,
+                              String content) throws Exception {
+        String document = "<t:root xmlns:t='urn:t'>" + content + "</t:root>";
+        boolean actual;
+        try {
+            validator.validate(new StreamSource(new StringReader(document)));
+            actual = true;
+        } catch (SAXException e) {
+            actual = false;
+        }
+        if (actual != valid) {
+            throw new Exception((valid ? "Rejected " : "Accepted ") + content);
+        }
+    }
+}
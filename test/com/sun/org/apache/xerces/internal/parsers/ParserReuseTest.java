@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary A reused SAX parser reports the same events as a new parser
+ *          with the same settings when features change between parses,
+ *          when documents switch between XML 1.0 and XML 1.1 and after
+ *          a fatal error, and applies the limits set between parses
+ * @run main/othervm ParserReuseTest
+ */
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class ParserReuseTest {
+
+    private static final String NAMESPACES =
+        "http://xml.org/sax/features/namespaces";
+    private static final String NAMESPACE_PREFIXES =
+        "http://xml.org/sax/features/namespace-prefixes";
+    private static final String VALIDATION =
+        "http://xml.org/sax/features/validation";
+
+    private static final String XML10 =
+        "<?xml version='1.0'?>\n" +
+        "<!DOCTYPE p:a [<!ELEMENT p:a (p:b)><!ELEMENT p:b EMPTY>\n" +
+        "<!ATTLIST p:a xmlns:p CDATA #IMPLIED>]>\n" +
+        "<p:a xmlns:p='urn:p'><p:c/></p:a>";
+
+    private static final String XML11 =
+        "<?xml version='1.1'?>\n" +
+        "<p:a xmlns:p='urn:p'>x\u0085y<p:b q='1'/></p:a>";
+
+    private static final String ENTITY_EXPANSION_LIMIT =
+        "http://www.oracle.com/xml/jaxp/properties/entityExpansionLimit";
+
+    // Expands the entity e five times
+    private static final String ENTITIES =
+        "<!DOCTYPE a [<!ENTITY e 'x'>]><a>&e;&e;&e;&e;&e;</a>";
+
+    private static final String BROKEN =
+        "<?xml version='1.0'?>\n<a><b></a>";
+
+    /** Records the events of a parse as strings. */
+    static class Recorder extends DefaultHandler {
+        final List<String> events = new ArrayList<String>();
+
+        public void startElement(String uri, String localName, String qName,
+                                 Attributes attributes) {
+            StringBuilder sb = new StringBuilder("start ")
+                .append(uri).append('|').append(localName).append('|')
+                .append(qName);
+            for (int i = 0; i < attributes.getLength(); i++) {
+                sb.append(' ').append(attributes.getQName(i)).append('=')
+                  .append(attributes.getValue(i));
+            }
+            events.add(sb.toString());
+        }
+
+        public void endElement(String uri, String localName, String qName) {
+            events.add("end " + uri + '|' + localName + '|' + qName);
+        }
+
+        public void characters(char[] ch, int start, int length) {
+            events.add("chars " + new String(ch, start, length));
+        }
+
+        public void error(SAXParseException e) {
+            events.add("error " + e.getLineNumber());
+        }
+
+        public void fatalError(SAXParseException e) throws SAXException {
+            events.add("fatal " + e.getLineNumber());
+            throw e;
+        }
+    }
+
+    private static final SAXParserFactory FACTORY =
+        SAXParserFactory.newInstance();
+
+    public static void main(String[] args) throws Exception {
+        XMLReader reused = FACTORY.newSAXParser().getXMLReader();
+
+        boolean[][] settings = {
+            // namespaces, namespace-prefixes, validation
+            { true,  false, false },
+            { true,  true,  false },
+            { false, true,  true  },
+            { true,  false, true  },
+            { true,  false, false },
+        };
+        String[] documents = { XML10, XML11, BROKEN, XML11, XML10, XML10 };
+
+        int checks = 0;
+        for (boolean[] s : settings) {
+            configure(reused, s);
+            for (String document : documents) {
+                List<String> expected = parse(newReader(s), document);
+                List<String> actual = parse(reused, document);
+                if (!expected.equals(actual)) {
+                    throw new Exception("Reused parser differs for settings " +
+                                        s[0] + "," + s[1] + "," + s[2] +
+                                        ":\n  expected " + expected +
+                                        "\n  actual   " + actual);
+                }
+                checks++;
+            }
+        }
+
+        // SAXParser.reset() restores the factory settings.
+        SAXParser parser = FACTORY.newSAXParser();
+        configure(parser.getXMLReader(), settings[2]);
+        parse(parser.getXMLReader(), XML10);
+        parser.reset();
+        List<String> expected = parse(FACTORY.newSAXParser().getXMLReader(),
+                                      XML10);
+        List<String> actual = parse(parser.getXMLReader(), XML10);
+        if (!expected.equals(actual)) {
+            throw new Exception("Parser differs after reset():\n  expected " +
+                                expected + "\n  actual   " + actual);
+        }
+        checks++;
+
+        // Limits set between parses apply to the next parse, and the
+        // counts of one parse do not carry over to the next.
+        XMLReader limited = FACTORY.newSAXParser().getXMLReader();
+        String[] limits = { "10", "4", "5", "0", "4", "6" };
+        for (String limit : limits) {
+            limited.setProperty(ENTITY_EXPANSION_LIMIT, limit);
+            for (int i = 0; i < 3; i++) {
+                boolean allowed = limit.equals("0") ||
+                                  Integer.parseInt(limit) >= 5;
+                List<String> events = parse(limited, ENTITIES);
+                boolean failed = events.get(events.size() - 1)
+                                       .startsWith("fatal");
+                if (failed == allowed) {
+                    throw new Exception("Entity expansion limit " + limit +
+                                        " not applied on parse " + i + ": " +
+                                        events);
+                }
+                checks++;
+            }
+        }
+
+        System.out.println(checks + " checks passed");
+    }
+
+    private static XMLReader newReader(boolean[] settings) throws Exception {
+        XMLReader reader = FACTORY.newSAXParser().getXMLReader();
+        configure(reader, settings);
+        return reader;
+    }
+
+    private static void configure(XMLReader reader, boolean[] settings)
+            throws Exception {
+        reader.setFeature(NAMESPACES, settings[0]);
+        reader.setFeature(NAMESPACE_PREFIXES, settings[1]);
+        reader.setFeature(VALIDATION, settings[2]);
+    }
+
+    private static List<String> parse(XMLReader reader, String document)
+            throws Exception {
+        Recorder recorder = new Recorder();
+        reader.setContentHandler(recorder);
+        reader.setErrorHandler(recorder);
+        try {
+            reader.parse(new InputSource(new StringReader(document)));
+        } catch (SAXParseException e) {
+            // recorded as a fatal error
+        }
+        return recorder.events;
+    }
+}
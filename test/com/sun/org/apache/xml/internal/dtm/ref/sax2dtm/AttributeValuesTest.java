@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary SAX2DTM2 returns every attribute, comment and processing
+ *          instruction value of a large document unchanged, whether the
+ *          value is shared with other attributes or not
+ * @run main/othervm AttributeValuesTest
+ */
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+public class AttributeValuesTest {
+
+    private static final String STYLESHEET =
+        "<xsl:stylesheet version='1.0' " +
+        "    xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+        "  <xsl:output method='text'/>" +
+        "  <xsl:template match='/'>" +
+        "    <xsl:for-each select='//@*|//comment()|//processing-instruction()'>" +
+        "      <xsl:value-of select='name()'/>" +
+        "      <xsl:text>=[</xsl:text>" +
+        "      <xsl:value-of select='.'/>" +
+        "      <xsl:text>]&#10;</xsl:text>" +
+        "    </xsl:for-each>" +
+        "  </xsl:template>" +
+        "</xsl:stylesheet>";
+
+    private static final String[] TYPES = { "a", "b", "flag", "", "code-7" };
+
+    public static void main(String[] args) throws Exception {
+        // Enough distinct short values to exceed the sharing limit,
+        // values both side of the length limit, and enough values
+        // overall for m_values to grow many times.
+        StringBuilder doc = new StringBuilder("<root>");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 6000; i++) {
+            String type = TYPES[i % TYPES.length];
+            String id = "id" + i;
+            String text = longValue(i);
+            doc.append("<e type='").append(type)
+               .append("' id='").append(id)
+               .append("' text='").append(text).append("'/>");
+            expected.append("type=[").append(type).append("]\n")
+                    .append("id=[").append(id).append("]\n")
+                    .append("text=[").append(text).append("]\n");
+            if (i % 500 == 0) {
+                doc.append("<!--c").append(i).append("-->")
+                   .append("<?pi d").append(i).append("?>");
+                expected.append("=[c").append(i).append("]\n")
+                        .append("pi=[d").append(i).append("]\n");
+            }
+        }
+        doc.append("</root>");
+
+        TransformerFactory factory = TransformerFactory.newInstance();
+        Transformer transformer = factory.newTransformer(
+            new StreamSource(new StringReader(STYLESHEET)));
+
+        // Transform twice with the same Transformer, so that a second
+        // DTM is built after the first one finished.
+        for (int run = 0; run < 2; run++) {
+            StringWriter out = new StringWriter();
+            transformer.transform(
+                new StreamSource(new StringReader(doc.toString())),
+                new StreamResult(out));
+            if (!expected.toString().equals(out.toString())) {
+                throw new Exception("Run " + run + ": unexpected output:\n" +
+                                    firstDifference(expected.toString(),
+                                                    out.toString()));
+            }
+        }
+        System.out.println("Test passed");
+    }
+
+    private static String longValue(int i) {
+        StringBuilder sb = new StringBuilder();
+        // alternately just under and over 32 characters
+        int length = (i % 2 == 0) ? 31 : 40;
+        while (sb.length() < length) {
+            sb.append(i).append('.');
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    private static String firstDifference(String expected, String actual) {
+        int i = 0;
+        while (i < expected.length() && i < actual.length() &&
+               expected.charAt(i) == actual.charAt(i)) {
+            i++;
+        }
+        int from = Math.max(0, i - 40);
+        return "expected ..." +
+               expected.substring(from, Math.min(expected.length(), i + 40)) +
+               "\nactual   ..." +
+               actual.substring(from, Math.min(actual.length(), i + 40));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary The XML serializer escapes attribute values correctly when
+ *          clean runs and characters that need escaping are mixed, for
+ *          several output encodings
+ * @run main/othervm AttributeEscaping
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class AttributeEscaping {
+
+    private static final String[] ENCODINGS = {
+        "UTF-8", "UTF-16", "ISO-8859-1", "US-ASCII"
+    };
+
+    /** Characters that are escaped or encoded in at least one encoding. */
+    private static final String[] SPECIAL = {
+        "&", "<", ">", "\"", "'", "\n", "\r", "\t", "\u00E9", "\u00FF",
+        "\u0100", "\u20AC", "\uD83D\uDE00"
+    };
+
+    public static void main(String[] args) throws Exception {
+        String[] values = {
+            "",
+            "plain",
+            "a&b",
+            "&<>\"",
+            "x\ny\tz\r",
+            "caf\u00E9 \u20AC5",
+            "\uD83D\uDE00 smile",
+            "ends with &",
+            "\u00FF\u0100",
+        };
+        for (String encoding : ENCODINGS) {
+            for (String value : values) {
+                check(encoding, value);
+            }
+            Random random = new Random(38L);
+            for (int i = 0; i < 500; i++) {
+                check(encoding, randomValue(random));
+            }
+        }
+
+        // The exact escaping of the markup characters.
+        String out = serialize(new String[] { "a&b<c>d\"e\nf\tg" }, "UTF-8");
+        String expected = "a=\"a&amp;b&lt;c&gt;d&quot;e&#10;f&#9;g\"";
+        if (!out.contains(expected)) {
+            throw new Exception("Expected " + expected + " in " + out);
+        }
+        System.out.println("Test passed");
+    }
+
+    private static String randomValue(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(40);
+        while (sb.length() < length) {
+            if (random.nextInt(4) == 0) {
+                sb.append(SPECIAL[random.nextInt(SPECIAL.length)]);
+            } else {
+                int run = random.nextInt(20);
+                for (int i = 0; i < run; i++) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Serializes an element with the value as attribute, parses the
+     * output again and checks that the attribute value is unchanged.
+     */
+    private static void check(String encoding, String value)
+            throws Exception {
+        byte[] bytes = serializeBytes(new String[] { value }, encoding);
+        Document doc = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+        String actual = doc.getDocumentElement().getAttribute("a");
+        if (!value.equals(actual)) {
+            throw new Exception(encoding + ": expected [" + value +
+                                "], got [" + actual + "] from " +
+                                new String(bytes, encoding));
+        }
+    }
+
+    private static String serialize(String[] values, String encoding)
+            throws Exception {
+        return new String(serializeBytes(values, encoding), encoding);
+    }
+
+    private static byte[] serializeBytes(String[] values, String encoding)
+            throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        Element root = doc.createElement("r");
+        for (int i = 0; i < values.length; i++) {
+            root.setAttribute(String.valueOf((char) ('a' + i)), values[i]);
+        }
+        doc.appendChild(root);
+
+        Transformer transformer =
+            TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, encoding);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(doc), new StreamResult(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary javax.xml.xpath evaluations give the same results with the
+ *          xpathContextCache feature enabled as with it disabled
+ * @run main/othervm XPathContextCacheTest
+ */
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathFunction;
+import javax.xml.xpath.XPathFunctionException;
+import javax.xml.xpath.XPathFunctionResolver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+public class XPathContextCacheTest {
+
+    private static final String CONTEXT_CACHE =
+        "http://www.oracle.com/xml/jaxp/properties/xpathContextCache";
+
+    private static final String[] EXPRESSIONS = {
+        "count(//item)",
+        "string(//item[2]/@id)",
+        "sum(//item/@n)",
+        "name(/*)",
+        "boolean(//item[@id='c'])",
+        "string(.)",
+        "count(ancestor-or-self::node())",
+        "string(following-sibling::*[1]/@id)",
+        "local-name(..)",
+    };
+
+    private static Document doc1;
+    private static Document doc2;
+
+    public static void main(String[] args) throws Exception {
+        doc1 = parse("<list><item id='a' n='1'>x</item><item id='b' n='2'/>" +
+                     "<item id='c' n='3'>y<sub/></item></list>");
+        doc2 = parse("<other><item id='z' n='10'/><item id='y' n='20'/>" +
+                     "</other>");
+
+        XPathFactory cached = XPathFactory.newInstance();
+        cached.setFeature(CONTEXT_CACHE, true);
+        XPathFactory uncached = XPathFactory.newInstance();
+        uncached.setFeature(CONTEXT_CACHE, false);
+
+        // Alternate documents and context nodes, including attributes
+        // and a detached element, so that the cached context is both
+        // reused and replaced.
+        List<Object> contexts = new ArrayList<Object>();
+        contexts.add(doc1);
+        contexts.add(doc1.getDocumentElement().getFirstChild());
+        contexts.add(doc2.getDocumentElement());
+        contexts.add(doc1.getDocumentElement().getLastChild());
+        contexts.add(((Element) doc2.getDocumentElement().getFirstChild())
+                     .getAttributeNode("id"));
+        contexts.add(doc1.createElement("detached"));
+        contexts.add(doc1);
+
+        List<String> expected = evaluateAll(uncached.newXPath(), contexts);
+        List<String> actual = evaluateAll(cached.newXPath(), contexts);
+        compare("XPath.evaluate", expected, actual);
+
+        expected = evaluateCompiled(uncached.newXPath(), contexts);
+        actual = evaluateCompiled(cached.newXPath(), contexts);
+        compare("XPathExpression.evaluate", expected, actual);
+
+        // Expressions without a context node get a context of their own.
+        compare("no context", "2", cached.newXPath().evaluate("1+1", (Object) null));
+
+        // A node list stays valid while later evaluations reuse the
+        // context.
+        XPath xpath = cached.newXPath();
+        NodeList items = (NodeList) xpath.evaluate("//item", doc1,
+                                                   XPathConstants.NODESET);
+        xpath.evaluate("//sub", doc1, XPathConstants.NODESET);
+        xpath.evaluate("count(//item)", doc1);
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < items.getLength(); i++) {
+            ids.append(((Element) items.item(i)).getAttribute("id"));
+        }
+        compare("node list", "abc", ids.toString());
+
+        // Different function resolvers do not share a context, and an
+        // extension function may evaluate XPath on the same document.
+        XPath first = cached.newXPath();
+        first.setXPathFunctionResolver(resolver("first", cached));
+        first.setNamespaceContext(new SimpleNamespaceContext());
+        XPath second = cached.newXPath();
+        second.setXPathFunctionResolver(resolver("second", cached));
+        second.setNamespaceContext(new SimpleNamespaceContext());
+        for (int i = 0; i < 3; i++) {
+            compare("first resolver", "first:3",
+                    first.evaluate("f:tag()", doc1));
+            compare("second resolver", "second:3",
+                    second.evaluate("f:tag()", doc1));
+        }
+
+        // A failed evaluation does not leave the context in use.
+        XPath failing = cached.newXPath();
+        failing.setXPathFunctionResolver(resolver("fail", cached));
+        failing.setNamespaceContext(new SimpleNamespaceContext());
+        try {
+            failing.evaluate("f:fail()", doc1);
+            throw new Exception("f:fail() did not fail");
+        } catch (XPathExpressionException expectedFailure) {
+        }
+        compare("after failure", "3", failing.evaluate("count(//item)", doc1));
+
+        // Threads evaluate over the same document concurrently.
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final XPathFactory factory = cached;
+            final List<Object> threadContexts = contexts;
+            final List<String> threadExpected =
+                evaluateAll(uncached.newXPath(), contexts);
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        XPath xpath;
+                        synchronized (factory) {
+                            xpath = factory.newXPath();
+                        }
+                        for (int i = 0; i < 200; i++) {
+                            compare("thread",
+                                    threadExpected,
+                                    evaluateAll(xpath, threadContexts));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("Test passed");
+    }
+
+    private static List<String> evaluateAll(XPath xpath, List<Object> contexts)
+            throws Exception {
+        List<String> results = new ArrayList<String>();
+        for (Object context : contexts) {
+            for (String expression : EXPRESSIONS) {
+                results.add(xpath.evaluate(expression, context));
+            }
+        }
+        return results;
+    }
+
+    private static List<String> evaluateCompiled(XPath xpath,
+                                                 List<Object> contexts)
+            throws Exception {
+        List<XPathExpression> compiled = new ArrayList<XPathExpression>();
+        for (String expression : EXPRESSIONS) {
+            compiled.add(xpath.compile(expression));
+        }
+        List<String> results = new ArrayList<String>();
+        for (Object context : contexts) {
+            for (XPathExpression expression : compiled) {
+                results.add(expression.evaluate(context));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns a resolver for f:tag(), which evaluates count(//item) on
+     * the document with a new XPath and prefixes the result with the
+     * given tag, and for f:fail(), which always fails.
+     */
+    private static XPathFunctionResolver resolver(final String tag,
+                                                  final XPathFactory factory) {
+        return new XPathFunctionResolver() {
+            public XPathFunction resolveFunction(QName name, int arity) {
+                if (name.getLocalPart().equals("fail")) {
+                    return new XPathFunction() {
+                        public Object evaluate(List args)
+                                throws XPathFunctionException {
+                            throw new XPathFunctionException("fail");
+                        }
+                    };
+                }
+                return new XPathFunction() {
+                    public Object evaluate(List args)
+                            throws XPathFunctionException {
+                        try {
+                            XPath nested;
+                            synchronized (factory) {
+                                nested = factory.newXPath();
+                            }
+                            return tag + ":" +
+                                nested.evaluate("count(//item)", doc1);
+                        } catch (XPathExpressionException e) {
+                            throw new XPathFunctionException(e);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    static class SimpleNamespaceContext
+            implements javax.xml.namespace.NamespaceContext {
+        public String getNamespaceURI(String prefix) {
+            return "f".equals(prefix) ? "urn:f" : null;
+        }
+        public String getPrefix(String uri) {
+            return "urn:f".equals(uri) ? "f" : null;
+        }
+        public java.util.Iterator getPrefixes(String uri) {
+            return null;
+        }
+    }
+
+    private static void compare(String what, Object expected, Object actual)
+            throws Exception {
+        if (!expected.equals(actual)) {
+            throw new Exception(what + ": expected " + expected + ", got " +
+                                actual);
+        }
+    }
+
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new InputSource(new StringReader(xml)));
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Range-based parsing of Integer and Long, and decode built on it
+ * @run main ParseRange
+ */
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+public class ParseRange {
+
+    static Method parseInt;
+    static Method parseLong;
+
+    public static void main(String... args) throws Throwable {
+        parseInt = Integer.class.getDeclaredMethod("parseInt",
+            CharSequence.class, int.class, int.class, int.class);
+        parseInt.setAccessible(true);
+        parseLong = Long.class.getDeclaredMethod("parseLong",
+            CharSequence.class, int.class, int.class, int.class);
+        parseLong.setAccessible(true);
+
+        testValues();
+        testBounds();
+        testRadix();
+        testSign();
+        testDecode();
+        testMessages();
+    }
+
+    static Object parse(Method m, CharSequence s, int begin, int end, int radix)
+        throws Throwable
+    {
+        try {
+            return m.invoke(null, s, begin, end, radix);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    static void check(Object actual, Object expected) {
+        if (!expected.equals(actual)) {
+            throw new RuntimeException("expected " + expected + ", got " + actual);
+        }
+    }
+
+    static void expect(Class<? extends Throwable> type, Method m,
+                       CharSequence s, int begin, int end, int radix)
+    {
+        try {
+            Object r = parse(m, s, begin, end, radix);
+            throw new RuntimeException("\"" + s + "\" [" + begin + ", " + end +
+                                       ") radix " + radix + " gave " + r);
+        } catch (Throwable t) {
+            if (!type.isInstance(t)) {
+                throw new RuntimeException("expected " + type.getName(), t);
+            }
+        }
+    }
+
+    static void testValues() throws Throwable {
+        String[] ints = { "0", "1", "-1", "+1", "2147483647", "-2147483648",
+                          "000123", "-0" };
+        for (String v : ints) {
+            String s = "xx" + v + "yy";
+            check(parse(parseInt, s, 2, 2 + v.length(), 10), Integer.parseInt(v));
+            check(parse(parseInt, new StringBuilder(s), 2, 2 + v.length(), 10),
+                  Integer.parseInt(v));
+        }
+        String[] longs = { "0", "-1", "9223372036854775807",
+                           "-9223372036854775808", "+42" };
+        for (String v : longs) {
+            String s = "[" + v + "]";
+            check(parse(parseLong, s, 1, 1 + v.length(), 10), Long.parseLong(v));
+        }
+        // Only the range is parsed, not the digits around it
+        check(parse(parseInt, "123456", 1, 4, 10), 234);
+        check(parse(parseLong, "123456", 2, 6, 10), 3456L);
+
+        // Overflow by one
+        expect(NumberFormatException.class, parseInt, "2147483648", 0, 10, 10);
+        expect(NumberFormatException.class, parseInt, "-2147483649", 0, 11, 10);
+        expect(NumberFormatException.class, parseLong,
+               "9223372036854775808", 0, 19, 10);
+        expect(NumberFormatException.class, parseLong,
+               "-9223372036854775809", 0, 20, 10);
+    }
+
+    static void testBounds() {
+        for (Method m : new Method[] { parseInt, parseLong }) {
+            expect(IndexOutOfBoundsException.class, m, "123", -1, 2, 10);
+            expect(IndexOutOfBoundsException.class, m, "123", 2, 1, 10);
+            expect(IndexOutOfBoundsException.class, m, "123", 0, 4, 10);
+            expect(NullPointerException.class, m, null, 0, 0, 10);
+            // An empty range holds no number
+            expect(NumberFormatException.class, m, "123", 1, 1, 10);
+            expect(NumberFormatException.class, m, "", 0, 0, 10);
+        }
+    }
+
+    static void testRadix() throws Throwable {
+        check(parse(parseInt, "7fffffff", 0, 8, 16), Integer.MAX_VALUE);
+        check(parse(parseInt, "-zz", 0, 3, 36), -1295);
+        check(parse(parseInt, "1010", 0, 4, 2), 10);
+        check(parse(parseLong, "7fffffffffffffff", 0, 16, 16), Long.MAX_VALUE);
+        check(parse(parseLong, "777", 0, 3, 8), 511L);
+        for (Method m : new Method[] { parseInt, parseLong }) {
+            expect(NumberFormatException.class, m, "1", 0, 1, Character.MIN_RADIX - 1);
+            expect(NumberFormatException.class, m, "1", 0, 1, Character.MAX_RADIX + 1);
+            expect(NumberFormatException.class, m, "12", 0, 2, 2);
+            expect(NumberFormatException.class, m, "g", 0, 1, 16);
+        }
+    }
+
+    static void testSign() throws Throwable {
+        check(parse(parseInt, "a-5", 1, 3, 10), -5);
+        check(parse(parseInt, "a+5", 1, 3, 10), 5);
+        for (Method m : new Method[] { parseInt, parseLong }) {
+            expect(NumberFormatException.class, m, "-", 0, 1, 10);
+            expect(NumberFormatException.class, m, "+", 0, 1, 10);
+            expect(NumberFormatException.class, m, "--1", 0, 3, 10);
+            expect(NumberFormatException.class, m, "1-", 0, 2, 10);
+            expect(NumberFormatException.class, m, " 1", 0, 2, 10);
+            // A sign belongs to the range only if it is inside it
+            expect(NumberFormatException.class, m, "5-", 1, 2, 10);
+        }
+    }
+
+    static void testDecode() {
+        check(Integer.decode("0x7fffffff"), Integer.MAX_VALUE);
+        check(Integer.decode("-0x80000000"), Integer.MIN_VALUE);
+        check(Integer.decode("#ff"), 255);
+        check(Integer.decode("010"), 8);
+        check(Integer.decode("-10"), -10);
+        check(Long.decode("-0x8000000000000000"), Long.MIN_VALUE);
+        check(Long.decode("0X7fffffffffffffff"), Long.MAX_VALUE);
+        String[] invalid = { "0x", "0x-1", "-", "0x80000000", "1x" };
+        for (String s : invalid) {
+            try {
+                Integer.decode(s);
+                throw new RuntimeException(s + " decoded");
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+        try {
+            Long.decode("0x8000000000000000");
+            throw new RuntimeException("Long overflow decoded");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    static void expectMessage(String message, Method m, CharSequence s,
+                              int begin, int end, int radix) throws Throwable
+    {
+        try {
+            parse(m, s, begin, end, radix);
+            throw new RuntimeException("\"" + s + "\" parsed");
+        } catch (NumberFormatException e) {
+            check(e.getMessage(), message);
+        }
+    }
+
+    static void testMessages() throws Throwable {
+        // The String overloads delegate to the range methods and keep
+        // their messages; a range is reported without the text around it
+        String[] invalid = { "", "-", "+", "12a", "2147483648",
+                             "9223372036854775808", " 1" };
+        for (String v : invalid) {
+            String message = "For input string: \"" + v + "\"";
+            if (!v.equals("2147483648")) {
+                try {
+                    Long.parseLong(v);
+                    throw new RuntimeException(v + " parsed");
+                } catch (NumberFormatException e) {
+                    check(e.getMessage(), message);
+                }
+                expectMessage(message, parseLong, "<" + v + ">",
+                              1, 1 + v.length(), 10);
+            }
+            try {
+                Integer.parseInt(v);
+                throw new RuntimeException(v + " parsed");
+            } catch (NumberFormatException e) {
+                check(e.getMessage(), message);
+            }
+            expectMessage(message, parseInt, "<" + v + ">",
+                          1, 1 + v.length(), 10);
+        }
+        try {
+            Integer.parseInt(null);
+            throw new RuntimeException("null parsed");
+        } catch (NumberFormatException e) {
+            check(e.getMessage(), "null");
+        }
+        try {
+            Long.parseLong("1", 37);
+            throw new RuntimeException("radix 37 accepted");
+        } catch (NumberFormatException e) {
+            check(e.getMessage(), "radix 37 greater than Character.MAX_RADIX");
+        }
+        try {
+            Integer.decode("0x1g");
+            throw new RuntimeException("0x1g decoded");
+        } catch (NumberFormatException e) {
+            check(e.getMessage(), "For input string: \"1g\"");
+        }
+        check(Integer.parseInt("-80000000", 16), Integer.MIN_VALUE);
+        check(Long.parseLong("-1000", 2), -8L);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary java.lang.invoke.MethodHandle.TRACE_SPINNING reports the classes
+ *          spun for lambda forms and lambda proxies
+ * @run main/othervm TraceSpinningTest
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class TraceSpinningTest {
+
+    static final String PROPERTY = "java.lang.invoke.MethodHandle.TRACE_SPINNING";
+
+    public static void main(String... args) throws Throwable {
+        if (args.length > 0) {
+            spin();
+            return;
+        }
+
+        List<String> traced = run(true);
+        if (!contains(traced, "[LAMBDA_SPIN] 1 ") ||
+            !contains(traced, "java.util.function.Supplier -> TraceSpinningTest.lambda$")) {
+            throw new RuntimeException("lambda proxy not traced: " + traced);
+        }
+        if (!contains(traced, "[LF_SPIN] 1 ")) {
+            throw new RuntimeException("lambda form not traced: " + traced);
+        }
+
+        List<String> quiet = run(false);
+        if (contains(quiet, "_SPIN]")) {
+            throw new RuntimeException("traced without " + PROPERTY + ": " + quiet);
+        }
+    }
+
+    static void spin() throws Throwable {
+        Supplier<String> s = () -> "lambda";
+        s.get();
+        MethodHandle mh = MethodHandles.lookup().findVirtual(String.class,
+            "concat", MethodType.methodType(String.class, String.class));
+        mh = MethodHandles.insertArguments(mh, 1, "!");
+        String r = (String) mh.invokeExact("spun");
+    }
+
+    static boolean contains(List<String> lines, String text) {
+        for (String line : lines) {
+            if (line.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static List<String> run(boolean trace) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" +
+                      File.separator + "java";
+        ProcessBuilder pb = new ProcessBuilder(java,
+            "-cp", System.getProperty("test.classes", "."),
+            "-D" + PROPERTY + "=" + trace,
+            TraceSpinningTest.class.getName(), "child");
+        pb.redirectErrorStream(true);
+        Process p = pb.start();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(
+                 new InputStreamReader(p.getInputStream()))) {
+            for (String line; (line = r.readLine()) != null; ) {
+                lines.add(line);
+            }
+        }
+        if (p.waitFor() != 0) {
+            throw new RuntimeException("child failed: " + lines);
+        }
+        return lines;
+    }
+}
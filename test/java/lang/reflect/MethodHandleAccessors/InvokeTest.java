@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Method.invoke and Constructor.newInstance through method handle
+ *          backed accessors
+ * @run main/othervm -Dsun.reflect.useMethodHandleAccessors=true InvokeTest true
+ * @run main/othervm InvokeTest false
+ */
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+public class InvokeTest {
+
+    static boolean viaMethodHandle;
+
+    final String value;
+
+    public InvokeTest() {
+        this.value = "";
+        viaMethodHandle = calledViaMethodHandle();
+    }
+
+    public InvokeTest(String... values) {
+        this.value = String.join(",", values);
+        viaMethodHandle = calledViaMethodHandle();
+    }
+
+    private InvokeTest(int i, long l) {
+        this.value = String.valueOf(i + l);
+        viaMethodHandle = calledViaMethodHandle();
+    }
+
+    public static String join(String... values) {
+        viaMethodHandle = calledViaMethodHandle();
+        return String.join(",", values);
+    }
+
+    public String describe(Object... values) {
+        viaMethodHandle = calledViaMethodHandle();
+        return value + ":" + values.length + ":" + Arrays.toString(values);
+    }
+
+    public static long add(int i, long l) {
+        viaMethodHandle = calledViaMethodHandle();
+        return i + l;
+    }
+
+    private static void voidMethod() {
+        viaMethodHandle = calledViaMethodHandle();
+    }
+
+    public static void throwing(RuntimeException e) {
+        throw e;
+    }
+
+    public static Integer castInTarget(Object o) {
+        return (Integer) o;
+    }
+
+    public static int lengthInTarget(String s) {
+        return s.length();
+    }
+
+    private static boolean calledViaMethodHandle() {
+        for (StackTraceElement e : new Throwable().getStackTrace()) {
+            if (e.getClassName().startsWith("java.lang.reflect.MethodHandleAccessors")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void check(boolean expectMethodHandle, Object actual, Object expected) {
+        if (!expected.equals(actual)) {
+            throw new RuntimeException("expected " + expected + ", got " + actual);
+        }
+        if (viaMethodHandle != expectMethodHandle) {
+            throw new RuntimeException("method handle accessor used: " +
+                                       viaMethodHandle);
+        }
+    }
+
+    static void expectTargetException(Method m, Object obj, Object[] args,
+                                      Class<? extends Throwable> cause)
+        throws Exception
+    {
+        try {
+            m.invoke(obj, args);
+            throw new RuntimeException(m + " did not throw");
+        } catch (InvocationTargetException e) {
+            if (e.getCause().getClass() != cause) {
+                throw new RuntimeException("unexpected cause", e);
+            }
+        }
+    }
+
+    static void expectIllegalArgument(Method m, Object obj, Object[] args)
+        throws Exception
+    {
+        try {
+            m.invoke(obj, args);
+            throw new RuntimeException(m + " did not throw");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public static void main(String... args) throws Exception {
+        boolean mh = Boolean.parseBoolean(args[0]);
+        InvokeTest t = new InvokeTest("t");
+
+        // Varargs members take their trailing array as one argument
+        Method join = InvokeTest.class.getMethod("join", String[].class);
+        check(mh, join.invoke(null, (Object) new String[] { "a", "b" }), "a,b");
+        check(mh, join.invoke(null, (Object) new String[0]), "");
+
+        Method describe = InvokeTest.class.getMethod("describe", Object[].class);
+        check(mh, describe.invoke(t, (Object) new Object[] { 1, "b" }), "t:2:[1, b]");
+        check(mh, describe.invoke(t, (Object) new Object[0]), "t:0:[]");
+
+        Constructor<InvokeTest> varargsCtor =
+            InvokeTest.class.getConstructor(String[].class);
+        check(mh, varargsCtor.newInstance((Object) new String[] { "x", "y" }).value, "x,y");
+
+        Constructor<InvokeTest> ctor = InvokeTest.class.getConstructor();
+        check(mh, ctor.newInstance().value, "");
+
+        Constructor<InvokeTest> privateCtor =
+            InvokeTest.class.getDeclaredConstructor(int.class, long.class);
+        privateCtor.setAccessible(true);
+        check(mh, privateCtor.newInstance('a', (byte) 1).value, "98");
+
+        // Unboxing followed by widening
+        Method add = InvokeTest.class.getMethod("add", int.class, long.class);
+        check(mh, add.invoke(null, (short) 2, 3), 5L);
+
+        Method voidMethod = InvokeTest.class.getDeclaredMethod("voidMethod");
+        voidMethod.setAccessible(true);
+        viaMethodHandle = !mh;
+        if (voidMethod.invoke(null) != null) {
+            throw new RuntimeException("void method returned a value");
+        }
+        check(mh, Boolean.TRUE, Boolean.TRUE);
+
+        // Argument errors are thrown directly
+        expectIllegalArgument(add, null, new Object[] { 1 });
+        expectIllegalArgument(add, null, new Object[] { 1L, 2L });
+        expectIllegalArgument(add, null, new Object[] { null, 2L });
+        expectIllegalArgument(describe, "not an InvokeTest", new Object[] { null });
+        try {
+            describe.invoke(null, (Object) new Object[0]);
+            throw new RuntimeException("null receiver accepted");
+        } catch (NullPointerException e) {
+            // expected
+        }
+
+        // Exceptions from the target are wrapped, including the ones the
+        // accessor could raise itself
+        Method throwing =
+            InvokeTest.class.getMethod("throwing", RuntimeException.class);
+        expectTargetException(throwing, null,
+                              new Object[] { new IllegalArgumentException() },
+                              IllegalArgumentException.class);
+        expectTargetException(throwing, null,
+                              new Object[] { new NullPointerException() },
+                              NullPointerException.class);
+        expectTargetException(InvokeTest.class.getMethod("castInTarget", Object.class),
+                              null, new Object[] { "s" }, ClassCastException.class);
+        expectTargetException(InvokeTest.class.getMethod("lengthInTarget", String.class),
+                              null, new Object[] { null }, NullPointerException.class);
+
+        // Exceptions raised by java.lang.Class methods are the target's too
+        expectTargetException(Class.class.getMethod("cast", Object.class),
+                              String.class, new Object[] { 42 },
+                              ClassCastException.class);
+        expectTargetException(Class.class.getMethod("isAssignableFrom", Class.class),
+                              String.class, new Object[] { null },
+                              NullPointerException.class);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary ISO_INSTANT formats instants in the same second, in adjacent
+ *          seconds and across eras exactly like a new instant formatter,
+ *          also when shared between threads
+ * @run main/othervm ISOInstantReuse
+ */
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ISOInstantReuse {
+
+    public static void main(String[] args) throws Exception {
+        long[] seconds = {
+            0L, 59L, 60L, 61L, 3599L, 3600L,
+            1_500_000_000L, 1_500_000_000L, 1_500_000_001L,
+            253_402_300_799L,          // 9999-12-31T23:59:59Z
+            253_402_300_800L,          // +10000-01-01T00:00:00Z
+            -62_167_219_200L,          // 0000-01-01T00:00:00Z
+            -62_167_219_201L,          // before the current era
+            Instant.MAX.getEpochSecond(),
+            Instant.MIN.getEpochSecond(),
+        };
+        int[] nanos = { 0, 1, 999_999_999, 120_000_000, 123_456_000, 0 };
+
+        // The same second several times, with differing fractions, then
+        // a different second, so that every cached second is replaced.
+        for (long second : seconds) {
+            for (int nano : nanos) {
+                check(DateTimeFormatter.ISO_INSTANT,
+                      Instant.ofEpochSecond(second, nano));
+            }
+        }
+        for (long second : seconds) {
+            for (int digits = -1; digits <= 9; digits++) {
+                DateTimeFormatter formatter = new DateTimeFormatterBuilder()
+                    .appendInstant(digits).toFormatter();
+                for (int nano : nanos) {
+                    Instant instant = Instant.ofEpochSecond(second, nano);
+                    String expected = new DateTimeFormatterBuilder()
+                        .appendInstant(digits).toFormatter().format(instant);
+                    String actual = formatter.format(instant);
+                    if (!expected.equals(actual)) {
+                        throw new Exception(digits + " digits: expected " +
+                                            expected + ", got " + actual);
+                    }
+                }
+            }
+        }
+
+        // Threads sharing ISO_INSTANT must never see another thread's
+        // second.
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 4; t++) {
+                final long seed = t;
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        Random random = new Random(seed);
+                        long base = 1_500_000_000L + seed * 3;
+                        for (int i = 0; i < 200_000; i++) {
+                            check(DateTimeFormatter.ISO_INSTANT,
+                                  Instant.ofEpochSecond(
+                                      base + random.nextInt(3),
+                                      random.nextInt(1_000_000_000)));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("Test passed");
+    }
+
+    private static void check(DateTimeFormatter formatter, Instant instant)
+            throws Exception {
+        String expected = new DateTimeFormatterBuilder()
+            .appendInstant().toFormatter().format(instant);
+        String actual = formatter.format(instant);
+        if (!expected.equals(actual)) {
+            throw new Exception("Expected " + expected + ", got " + actual);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Formatting with a cached format string layout gives the same
+ *          result as parsing the format string
+ * @run main/othervm ParseCache
+ */
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class ParseCache {
+
+    static final Calendar CAL = new GregorianCalendar(2017, Calendar.MARCH, 4, 5, 6, 7);
+    static {
+        CAL.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    static final Object[][] CASES = {
+        { "plain text" },
+        { "" },
+        { "%d", 42 },
+        { "%s and %s", "a", "b" },
+        { "%2$s %1$s %<s", "a", "b" },
+        { "%-10s|%10s|", "left", "right" },
+        { "%08.3f %e %g %a", 3.14159, 1234.5, 0.0001, 1.0 },
+        { "%,d %+d %(d % d %x %X %o", 1234567, 5, -5, 5, 255, 255, 8 },
+        { "%#x %#o %c %b %h %%%n", 255, 8, 'c', true, "h" },
+        { "%tY-%<tm-%<td %<tH:%<tM:%<tS %<Tp", CAL },
+        { "%S %.3s %10.2s", "upper", "truncate", "ab" },
+    };
+
+    static final String[] INVALID = {
+        "%q", "%-d", "%#s %", "%.2d", "%<s", "%0s", "%--5d", "100%",
+    };
+
+    public static void main(String... args) {
+        Locale.setDefault(Locale.US);
+
+        // The first format call parses; the later ones reuse the layout
+        for (Object[] c : CASES) {
+            check(c);
+        }
+
+        // Invalid format strings are never cached and fail every time
+        for (String format : INVALID) {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    String.format(format, 1);
+                    throw new RuntimeException(format + " accepted");
+                } catch (IllegalFormatException e) {
+                    // expected
+                }
+            }
+        }
+
+        // Fill the cache beyond its bound, then check that the first
+        // format strings still give the same result
+        for (int i = 0; i < 2000; i++) {
+            check(new Object[] { "%d:" + i + ":%s", i, "x" });
+        }
+        for (Object[] c : CASES) {
+            check(c);
+        }
+
+        // The same format string with other arguments
+        for (int i = 0; i < 3; i++) {
+            if (!String.format("%5d|%-5s|", i, "v" + i)
+                     .equals(String.format("%5d|%-5s|", i, "v" + i))) {
+                throw new RuntimeException("unstable result");
+            }
+        }
+
+        // A format string over the cached length limit
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("%d,");
+        }
+        Object[] ints = new Object[100];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = i;
+        }
+        check(new Object[] { sb.toString(), ints });
+    }
+
+    static void check(Object[] c) {
+        String format = (String) c[0];
+        Object[] args = new Object[c.length - 1];
+        System.arraycopy(c, 1, args, 0, args.length);
+        if (args.length == 1 && args[0] instanceof Object[]) {
+            args = (Object[]) args[0];
+        }
+        String expected = String.format(format, args);
+        for (int i = 0; i < 3; i++) {
+            String actual = String.format(format, args);
+            if (!expected.equals(actual)) {
+                throw new RuntimeException(format + ": expected " + expected +
+                                           ", got " + actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Nested open data is accepted for the identical, an equal or an
+ *          assignable open type, and rejected otherwise
+ * @run main NestedOpenTypeCheck
+ */
+
+import javax.management.openmbean.ArrayType;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+
+public class NestedOpenTypeCheck {
+
+    static CompositeType leafType(String name) throws OpenDataException {
+        return new CompositeType(name, "leaf", new String[] { "v" },
+                                 new String[] { "v" },
+                                 new OpenType<?>[] { SimpleType.INTEGER });
+    }
+
+    static CompositeType holderType(OpenType<?> itemType) throws OpenDataException {
+        return new CompositeType("Holder", "holder", new String[] { "item" },
+                                 new String[] { "item" },
+                                 new OpenType<?>[] { itemType });
+    }
+
+    public static void main(String... args) throws Exception {
+        CompositeType leaf = leafType("Leaf");
+        CompositeData leafValue = new CompositeDataSupport(leaf,
+            new String[] { "v" }, new Object[] { 1 });
+
+        // Identical and equal composite types
+        new CompositeDataSupport(holderType(leaf),
+            new String[] { "item" }, new Object[] { leafValue });
+        new CompositeDataSupport(holderType(leafType("Leaf")),
+            new String[] { "item" }, new Object[] { leafValue });
+        expectRejected(holderType(leafType("Other")), leafValue);
+
+        // Identical and equal array types
+        ArrayType<CompositeData[]> array = new ArrayType<>(1, leaf);
+        CompositeData[] arrayValue = { leafValue, leafValue };
+        new CompositeDataSupport(holderType(array),
+            new String[] { "item" }, new Object[] { arrayValue });
+        new CompositeDataSupport(holderType(new ArrayType<CompositeData[]>(1, leafType("Leaf"))),
+            new String[] { "item" }, new Object[] { arrayValue });
+
+        // Identical and equal tabular types
+        TabularType table = new TabularType("Table", "table", leaf, new String[] { "v" });
+        TabularDataSupport tableValue = new TabularDataSupport(table);
+        tableValue.put(leafValue);
+        new CompositeDataSupport(holderType(table),
+            new String[] { "item" }, new Object[] { tableValue });
+        new CompositeDataSupport(holderType(new TabularType("Table", "table",
+                                     leafType("Leaf"), new String[] { "v" })),
+            new String[] { "item" }, new Object[] { tableValue });
+        expectRejected(holderType(new TabularType("Table", "table",
+                           leafType("Other"), new String[] { "v" })), tableValue);
+    }
+
+    static void expectRejected(CompositeType type, Object item) {
+        try {
+            new CompositeDataSupport(type, new String[] { "item" },
+                                     new Object[] { item });
+            throw new RuntimeException(item + " accepted for " + type);
+        } catch (OpenDataException e) {
+            // expected
+        }
+    }
+}